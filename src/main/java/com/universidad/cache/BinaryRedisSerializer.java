@@ -0,0 +1,311 @@
+package com.universidad.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Serializador de valores de caché en binario compacto. Los tipos registrados
+ * en el {@link RegistroTiposCache} (y las listas de ellos) se escriben con su
+ * {@link CodecTipo} y un ID de tipo en lugar del nombre de la clase; el resto
+ * sigue en JSON. Por encima de un umbral el cuerpo se comprime con Deflate.
+ *
+ * Formato: un byte de cabecera (formato y si está comprimido), el largo sin
+ * comprimir si corresponde y el cuerpo. Los valores guardados antes de este
+ * serializador no empiezan con una cabecera válida y se leen como JSON.
+ */
+@Component
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte FORMATO_BINARIO = 0x01;
+    private static final byte FORMATO_JSON = 0x02;
+    private static final byte COMPRIMIDO = 0x10;
+
+    // ID de tipo reservado para listas
+    private static final int LISTA = 0;
+
+    private final RegistroTiposCache registro;
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final int umbralCompresion;
+    private final int muestreoJson;
+
+    private final AtomicLong binarios = new AtomicLong();
+    private final AtomicLong enJson = new AtomicLong();
+    private final AtomicLong comprimidos = new AtomicLong();
+    private final AtomicLong bytesSinComprimir = new AtomicLong();
+    private final AtomicLong bytesEscritos = new AtomicLong();
+    private final AtomicLong nanosCodificacion = new AtomicLong();
+    private final AtomicLong leidos = new AtomicLong();
+    private final AtomicLong nanosDecodificacion = new AtomicLong();
+    private final AtomicLong tiposDesconocidos = new AtomicLong();
+    private final AtomicLong muestras = new AtomicLong();
+    private final AtomicLong muestraBytesBinario = new AtomicLong();
+    private final AtomicLong muestraBytesJson = new AtomicLong();
+    private final AtomicLong muestraNanosBinario = new AtomicLong();
+    private final AtomicLong muestraNanosJson = new AtomicLong();
+
+    // Bytes del último valor serializado en cada hilo, para las métricas por caché
+    private final ThreadLocal<int[]> ultimoTamano = ThreadLocal.withInitial(() -> new int[] { -1 });
+
+    public BinaryRedisSerializer(
+            @Value("${app.cache.serializacion.umbral-compresion:1024}") int umbralCompresion,
+            @Value("${app.cache.serializacion.muestreo-json:100}") int muestreoJson) {
+        this.registro = CodecsDTO.registroPorDefecto();
+        this.umbralCompresion = umbralCompresion;
+        this.muestreoJson = muestreoJson;
+    }
+
+    /**
+     * Registro de tipos, para agregar codecs de otros tipos cacheados.
+     */
+    public RegistroTiposCache getRegistro() {
+        return registro;
+    }
+
+    @Override
+    public byte[] serialize(Object valor) throws SerializationException {
+        if (valor == null) {
+            return new byte[0];
+        }
+        long inicio = System.nanoTime();
+        byte formato;
+        byte[] cuerpo;
+        if (soportado(valor)) {
+            cuerpo = codificar(valor);
+            formato = FORMATO_BINARIO;
+            long nanos = System.nanoTime() - inicio;
+            binarios.incrementAndGet();
+            if (muestreoJson > 0 && binarios.get() % muestreoJson == 0) {
+                muestrearJson(valor, cuerpo.length, nanos);
+            }
+        } else {
+            cuerpo = json.serialize(valor);
+            formato = FORMATO_JSON;
+            enJson.incrementAndGet();
+        }
+        bytesSinComprimir.addAndGet(cuerpo.length);
+
+        byte[] resultado = cuerpo.length >= umbralCompresion ? comprimir(formato, cuerpo) : null;
+        if (resultado != null) {
+            comprimidos.incrementAndGet();
+        } else {
+            resultado = new byte[cuerpo.length + 1];
+            resultado[0] = formato;
+            System.arraycopy(cuerpo, 0, resultado, 1, cuerpo.length);
+        }
+        bytesEscritos.addAndGet(resultado.length);
+        nanosCodificacion.addAndGet(System.nanoTime() - inicio);
+        ultimoTamano.get()[0] = resultado.length;
+        return resultado;
+    }
+
+    /**
+     * Bytes del último valor serializado en el hilo actual, o -1 si no hubo
+     * ninguno desde la llamada anterior. RedisCache serializa en el hilo que
+     * escribe, así que justo después de un put es el tamaño de ese valor.
+     */
+    public int tamanoUltimoValor() {
+        int[] tamano = ultimoTamano.get();
+        int valor = tamano[0];
+        tamano[0] = -1;
+        return valor;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        long inicio = System.nanoTime();
+        byte cabecera = bytes[0];
+        byte formato = (byte) (cabecera & ~COMPRIMIDO);
+        if (formato != FORMATO_BINARIO && formato != FORMATO_JSON) {
+            // Valor anterior a este serializador: JSON, o JDK en las cachés que
+            // tenían configuración propia; lo que no se puede leer es un fallo
+            try {
+                return json.deserialize(bytes);
+            } catch (SerializationException e) {
+                tiposDesconocidos.incrementAndGet();
+                return null;
+            }
+        }
+        try {
+            byte[] cuerpo = (cabecera & COMPRIMIDO) != 0 ? descomprimir(bytes) : copiarCuerpo(bytes);
+            Object valor;
+            if (formato == FORMATO_JSON) {
+                valor = json.deserialize(cuerpo);
+            } else {
+                valor = decodificar(new DataInputStream(new ByteArrayInputStream(cuerpo)));
+            }
+            leidos.incrementAndGet();
+            nanosDecodificacion.addAndGet(System.nanoTime() - inicio);
+            return valor;
+        } catch (TipoDesconocidoException e) {
+            // Valor con un ID de tipo que ya no existe: se trata como fallo de caché
+            tiposDesconocidos.incrementAndGet();
+            return null;
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("No se pudo leer el valor de caché", e);
+        }
+    }
+
+    /**
+     * Valores codificados en binario y en JSON, compresión, tiempos medios y,
+     * sobre una muestra, el tamaño y tiempo de codificación comparados con JSON.
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        long escritos = binarios.get() + enJson.get();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("binarios", binarios.get());
+        estadisticas.put("json", enJson.get());
+        estadisticas.put("comprimidos", comprimidos.get());
+        estadisticas.put("bytesSinComprimir", bytesSinComprimir.get());
+        estadisticas.put("bytesEscritos", bytesEscritos.get());
+        estadisticas.put("codificacionMediaMicros", escritos > 0 ? nanosCodificacion.get() / 1000.0 / escritos : 0);
+        estadisticas.put("leidos", leidos.get());
+        estadisticas.put("decodificacionMediaMicros", leidos.get() > 0 ? nanosDecodificacion.get() / 1000.0 / leidos.get() : 0);
+        estadisticas.put("tiposDesconocidos", tiposDesconocidos.get());
+        Map<String, Object> muestra = new LinkedHashMap<>();
+        muestra.put("valores", muestras.get());
+        muestra.put("bytesBinario", muestraBytesBinario.get());
+        muestra.put("bytesJson", muestraBytesJson.get());
+        muestra.put("nanosBinario", muestraNanosBinario.get());
+        muestra.put("nanosJson", muestraNanosJson.get());
+        estadisticas.put("comparacionJson", muestra);
+        return estadisticas;
+    }
+
+    private boolean soportado(Object valor) {
+        if (valor instanceof List<?> lista) {
+            for (Object elemento : lista) {
+                if (elemento == null || registro.porClase(elemento.getClass()) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return registro.porClase(valor.getClass()) != null;
+    }
+
+    private byte[] codificar(Object valor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            escribir(valor, salida);
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo codificar el valor de caché", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void escribir(Object valor, DataOutputStream salida) throws IOException {
+        if (valor instanceof List<?> lista) {
+            CamposBinarios.escribirVarint(salida, LISTA);
+            CamposBinarios.escribirVarint(salida, lista.size());
+            for (Object elemento : lista) {
+                escribir(elemento, salida);
+            }
+            return;
+        }
+        RegistroTiposCache.Registro<Object> tipo = (RegistroTiposCache.Registro<Object>) registro.porClase(valor.getClass());
+        CamposBinarios.escribirVarint(salida, tipo.id);
+        tipo.codec.escribir(valor, salida);
+    }
+
+    private Object decodificar(DataInputStream entrada) throws IOException {
+        int id = (int) CamposBinarios.leerVarint(entrada);
+        if (id == LISTA) {
+            int cantidad = (int) CamposBinarios.leerVarint(entrada);
+            List<Object> lista = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                lista.add(decodificar(entrada));
+            }
+            return lista;
+        }
+        RegistroTiposCache.Registro<?> tipo = registro.porId(id);
+        if (tipo == null) {
+            throw new TipoDesconocidoException();
+        }
+        return tipo.codec.leer(entrada);
+    }
+
+    // Devuelve null si comprimir no achica el cuerpo
+    private static byte[] comprimir(byte formato, byte[] cuerpo) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(cuerpo.length / 2 + 8);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeByte(formato | COMPRIMIDO);
+            CamposBinarios.escribirVarint(salida, cuerpo.length);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(cuerpo);
+                deflater.finish();
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    salida.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } finally {
+                deflater.end();
+            }
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo comprimir el valor de caché", e);
+        }
+        return bytes.size() < cuerpo.length + 1 ? bytes.toByteArray() : null;
+    }
+
+    private static byte[] descomprimir(byte[] bytes) throws IOException, DataFormatException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+        int largo = (int) CamposBinarios.leerVarint(entrada);
+        int inicio = bytes.length - entrada.available();
+        byte[] cuerpo = new byte[largo];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, inicio, bytes.length - inicio);
+            int leidos = 0;
+            while (leidos < largo && !inflater.finished()) {
+                int n = inflater.inflate(cuerpo, leidos, largo - leidos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Valor comprimido truncado");
+                }
+                leidos += n;
+            }
+        } finally {
+            inflater.end();
+        }
+        return cuerpo;
+    }
+
+    private static byte[] copiarCuerpo(byte[] bytes) {
+        byte[] cuerpo = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, cuerpo, 0, cuerpo.length);
+        return cuerpo;
+    }
+
+    private void muestrearJson(Object valor, int bytesBinario, long nanosBinario) {
+        long inicio = System.nanoTime();
+        byte[] enJsonBytes = json.serialize(valor);
+        muestraNanosJson.addAndGet(System.nanoTime() - inicio);
+        muestraBytesJson.addAndGet(enJsonBytes.length);
+        muestraNanosBinario.addAndGet(nanosBinario);
+        muestraBytesBinario.addAndGet(bytesBinario);
+        muestras.incrementAndGet();
+    }
+
+    private static final class TipoDesconocidoException extends IOException {
+    }
+}
@@ -0,0 +1,47 @@
+package com.universidad.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de la caché local (L1) que {@link TwoLevelCacheManager} pone
+ * delante de Redis. El peso de una entrada es 1 más la cantidad de elementos si
+ * el valor es una colección o un mapa, así una lista grande cuenta como muchas
+ * entradas chicas.
+ *
+ * <pre>
+ * app.cache.l1.peso-maximo=10000
+ * app.cache.l1.peso-maximo-por-cache.estudiantes=50000
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.l1")
+public class CacheL1Properties {
+
+    /**
+     * Sin L1 todas las lecturas van directo a Redis.
+     */
+    private boolean activa = true;
+
+    /**
+     * Peso máximo por caché cuando no se indica uno propio.
+     */
+    private long pesoMaximo = 10000;
+
+    private Map<String, Long> pesoMaximoPorCache = new HashMap<>();
+
+    /**
+     * Vida máxima de una entrada en L1. Acota lo que puede durar un valor viejo
+     * si se pierde un mensaje de invalidación entre nodos.
+     */
+    private long ttlSegundos = 60;
+
+    public long pesoMaximo(String cacheName) {
+        return pesoMaximoPorCache.getOrDefault(cacheName, pesoMaximo);
+    }
+}
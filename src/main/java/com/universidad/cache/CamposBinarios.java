@@ -0,0 +1,129 @@
+package com.universidad.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Campos que admiten null para los {@link CodecTipo}: un byte de presencia y
+ * después el valor. Los largos y los números se escriben como varint, así los
+ * IDs chicos ocupan uno o dos bytes.
+ */
+public final class CamposBinarios {
+
+    private CamposBinarios() {
+    }
+
+    public static void escribirTexto(DataOutputStream salida, String valor) throws IOException {
+        if (valor == null) {
+            salida.writeByte(0);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        salida.writeByte(1);
+        escribirVarint(salida, bytes.length);
+        salida.write(bytes);
+    }
+
+    public static String leerTexto(DataInputStream entrada) throws IOException {
+        if (entrada.readByte() == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) leerVarint(entrada)];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void escribirLong(DataOutputStream salida, Long valor) throws IOException {
+        salida.writeByte(valor != null ? 1 : 0);
+        if (valor != null) {
+            // ZigZag: los negativos chicos también ocupan pocos bytes
+            escribirVarint(salida, (valor << 1) ^ (valor >> 63));
+        }
+    }
+
+    public static Long leerLong(DataInputStream entrada) throws IOException {
+        if (entrada.readByte() == 0) {
+            return null;
+        }
+        long zigzag = leerVarint(entrada);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public static void escribirEntero(DataOutputStream salida, Integer valor) throws IOException {
+        escribirLong(salida, valor != null ? valor.longValue() : null);
+    }
+
+    public static Integer leerEntero(DataInputStream entrada) throws IOException {
+        Long valor = leerLong(entrada);
+        return valor != null ? valor.intValue() : null;
+    }
+
+    public static void escribirDecimal(DataOutputStream salida, Double valor) throws IOException {
+        salida.writeByte(valor != null ? 1 : 0);
+        if (valor != null) {
+            salida.writeDouble(valor);
+        }
+    }
+
+    public static Double leerDecimal(DataInputStream entrada) throws IOException {
+        return entrada.readByte() != 0 ? entrada.readDouble() : null;
+    }
+
+    public static void escribirFecha(DataOutputStream salida, LocalDate valor) throws IOException {
+        escribirLong(salida, valor != null ? valor.toEpochDay() : null);
+    }
+
+    public static LocalDate leerFecha(DataInputStream entrada) throws IOException {
+        Long dia = leerLong(entrada);
+        return dia != null ? LocalDate.ofEpochDay(dia) : null;
+    }
+
+    public static void escribirListaLong(DataOutputStream salida, List<Long> valores) throws IOException {
+        if (valores == null) {
+            salida.writeByte(0);
+            return;
+        }
+        salida.writeByte(1);
+        escribirVarint(salida, valores.size());
+        for (Long valor : valores) {
+            escribirLong(salida, valor);
+        }
+    }
+
+    public static List<Long> leerListaLong(DataInputStream entrada) throws IOException {
+        if (entrada.readByte() == 0) {
+            return null;
+        }
+        int cantidad = (int) leerVarint(entrada);
+        List<Long> valores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            valores.add(leerLong(entrada));
+        }
+        return valores;
+    }
+
+    public static void escribirVarint(DataOutputStream salida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            salida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.writeByte((int) valor);
+    }
+
+    public static long leerVarint(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            byte b = entrada.readByte();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint mal formado");
+    }
+}
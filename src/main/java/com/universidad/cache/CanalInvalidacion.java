@@ -0,0 +1,22 @@
+package com.universidad.cache;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Canal por el que los nodos se avisan que una entrada de caché cambió, para
+ * que descarten su copia local.
+ */
+public interface CanalInvalidacion {
+
+    /**
+     * Avisa a los demás nodos que la clave cambió; con clave null, que se
+     * vació la caché completa.
+     */
+    void publicar(String cacheName, String clave);
+
+    /**
+     * Registra quién recibe las invalidaciones de los demás nodos (nunca las
+     * propias). Recibe el nombre de la caché y la clave, null si es toda la caché.
+     */
+    void suscribir(BiConsumer<String, String> receptor);
+}
@@ -0,0 +1,106 @@
+package com.universidad.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Claves más pedidas de las cachés. La frecuencia de cada clave se estima con
+ * un count-min sketch de tamaño fijo, sin guardar las claves; solo se retienen
+ * las K con mayor estimación. Cada tanto los contadores se reducen a la mitad
+ * para que el ranking refleje lo reciente (una materia caliente durante la
+ * inscripción) y no todo el historial.
+ *
+ * Los incrementos concurrentes con un envejecimiento pueden perder alguna
+ * cuenta; es una estimación.
+ */
+class ClavesCalientes {
+
+    private static final int PROFUNDIDAD = 4;
+    private static final int ANCHO = 4096; // potencia de 2
+    // Accesos entre envejecimientos
+    private static final long PERIODO_ENVEJECIMIENTO = ANCHO * 10L;
+
+    private final int k;
+    private final AtomicIntegerArray contadores = new AtomicIntegerArray(PROFUNDIDAD * ANCHO);
+    private final AtomicLong accesos = new AtomicLong();
+    private final Map<String, Integer> candidatas = new ConcurrentHashMap<>();
+    private volatile int minimoCandidatas;
+
+    ClavesCalientes(int k) {
+        this.k = Math.max(1, k);
+    }
+
+    void registrar(String clave) {
+        int estimacion = incrementar(clave);
+        if (candidatas.containsKey(clave)) {
+            candidatas.put(clave, estimacion);
+        } else if (candidatas.size() < k || estimacion > minimoCandidatas) {
+            agregarCandidata(clave, estimacion);
+        }
+        if (accesos.incrementAndGet() % PERIODO_ENVEJECIMIENTO == 0) {
+            envejecer();
+        }
+    }
+
+    /**
+     * Las claves más pedidas con su frecuencia estimada, de mayor a menor.
+     */
+    List<Map<String, Object>> obtenerTop() {
+        List<Map.Entry<String, Integer>> ordenadas = new ArrayList<>(candidatas.entrySet());
+        ordenadas.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (Map.Entry<String, Integer> entrada : ordenadas) {
+            Map<String, Object> clave = new LinkedHashMap<>();
+            clave.put("clave", entrada.getKey());
+            clave.put("frecuenciaEstimada", entrada.getValue());
+            top.add(clave);
+        }
+        return top;
+    }
+
+    private int incrementar(String clave) {
+        int h1 = dispersar(clave.hashCode());
+        int h2 = dispersar(h1 ^ 0x9E3779B9) | 1;
+        int estimacion = Integer.MAX_VALUE;
+        for (int fila = 0; fila < PROFUNDIDAD; fila++) {
+            int columna = (h1 + fila * h2) & (ANCHO - 1);
+            estimacion = Math.min(estimacion, contadores.incrementAndGet(fila * ANCHO + columna));
+        }
+        return estimacion;
+    }
+
+    private synchronized void agregarCandidata(String clave, int estimacion) {
+        if (candidatas.size() >= k && estimacion <= minimoCandidatas) {
+            return;
+        }
+        candidatas.put(clave, estimacion);
+        if (candidatas.size() > k) {
+            candidatas.entrySet().stream().min(Map.Entry.comparingByValue())
+                    .ifPresent(minima -> candidatas.remove(minima.getKey()));
+        }
+        minimoCandidatas = candidatas.size() < k ? 0
+                : candidatas.values().stream().mapToInt(Integer::intValue).min().orElse(0);
+    }
+
+    private synchronized void envejecer() {
+        for (int i = 0; i < contadores.length(); i++) {
+            contadores.set(i, contadores.get(i) >>> 1);
+        }
+        candidatas.replaceAll((clave, estimacion) -> estimacion >>> 1);
+        minimoCandidatas >>>= 1;
+    }
+
+    private static int dispersar(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+}
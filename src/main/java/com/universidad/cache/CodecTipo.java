@@ -0,0 +1,17 @@
+package com.universidad.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Codificación binaria de un tipo cacheado. Los campos se escriben siempre en
+ * el mismo orden; {@link CamposBinarios} tiene las lecturas y escrituras de
+ * campos que admiten null.
+ */
+public interface CodecTipo<T> {
+
+    void escribir(T valor, DataOutputStream salida) throws IOException;
+
+    T leer(DataInputStream entrada) throws IOException;
+}
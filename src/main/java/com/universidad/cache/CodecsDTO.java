@@ -0,0 +1,117 @@
+package com.universidad.cache;
+
+import com.universidad.dto.EstudianteDTO;
+import com.universidad.dto.InscripcionDTO;
+import com.universidad.dto.MateriaDTO;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static com.universidad.cache.CamposBinarios.*;
+
+/**
+ * Codecs binarios de los DTO que se cachean. Si cambian los campos de uno de
+ * estos DTO, su codec se registra con un ID nuevo: los valores que queden en
+ * Redis con el ID anterior se leen como fallo de caché.
+ */
+public final class CodecsDTO {
+
+    public static final int ESTUDIANTE = 1;
+    public static final int MATERIA = 2;
+    public static final int INSCRIPCION = 3;
+
+    private CodecsDTO() {
+    }
+
+    public static RegistroTiposCache registroPorDefecto() {
+        return new RegistroTiposCache()
+                .registrar(ESTUDIANTE, EstudianteDTO.class, new CodecTipo<>() {
+                    @Override
+                    public void escribir(EstudianteDTO valor, DataOutputStream salida) throws IOException {
+                        escribirLong(salida, valor.getId());
+                        escribirTexto(salida, valor.getNombre());
+                        escribirTexto(salida, valor.getApellido());
+                        escribirTexto(salida, valor.getEmail());
+                        escribirFecha(salida, valor.getFechaNacimiento());
+                        escribirTexto(salida, valor.getNumeroInscripcion());
+                        escribirTexto(salida, valor.getEstado());
+                        escribirTexto(salida, valor.getUsuarioAlta());
+                        escribirFecha(salida, valor.getFechaAlta());
+                        escribirTexto(salida, valor.getUsuarioModificacion());
+                        escribirFecha(salida, valor.getFechaModificacion());
+                        escribirTexto(salida, valor.getUsuarioBaja());
+                        escribirFecha(salida, valor.getFechaBaja());
+                        escribirTexto(salida, valor.getMotivoBaja());
+                    }
+
+                    @Override
+                    public EstudianteDTO leer(DataInputStream entrada) throws IOException {
+                        return EstudianteDTO.builder()
+                                .id(leerLong(entrada))
+                                .nombre(leerTexto(entrada))
+                                .apellido(leerTexto(entrada))
+                                .email(leerTexto(entrada))
+                                .fechaNacimiento(leerFecha(entrada))
+                                .numeroInscripcion(leerTexto(entrada))
+                                .estado(leerTexto(entrada))
+                                .usuarioAlta(leerTexto(entrada))
+                                .fechaAlta(leerFecha(entrada))
+                                .usuarioModificacion(leerTexto(entrada))
+                                .fechaModificacion(leerFecha(entrada))
+                                .usuarioBaja(leerTexto(entrada))
+                                .fechaBaja(leerFecha(entrada))
+                                .motivoBaja(leerTexto(entrada))
+                                .build();
+                    }
+                })
+                .registrar(MATERIA, MateriaDTO.class, new CodecTipo<>() {
+                    @Override
+                    public void escribir(MateriaDTO valor, DataOutputStream salida) throws IOException {
+                        escribirLong(salida, valor.getId());
+                        escribirTexto(salida, valor.getNombreMateria());
+                        escribirTexto(salida, valor.getCodigoUnico());
+                        escribirEntero(salida, valor.getCreditos());
+                        escribirLong(salida, valor.getDocenteId());
+                        escribirListaLong(salida, valor.getPrerequisitos());
+                        escribirListaLong(salida, valor.getEsPrerequisitoDe());
+                    }
+
+                    @Override
+                    public MateriaDTO leer(DataInputStream entrada) throws IOException {
+                        return MateriaDTO.builder()
+                                .id(leerLong(entrada))
+                                .nombreMateria(leerTexto(entrada))
+                                .codigoUnico(leerTexto(entrada))
+                                .creditos(leerEntero(entrada))
+                                .docenteId(leerLong(entrada))
+                                .prerequisitos(leerListaLong(entrada))
+                                .esPrerequisitoDe(leerListaLong(entrada))
+                                .build();
+                    }
+                })
+                .registrar(INSCRIPCION, InscripcionDTO.class, new CodecTipo<>() {
+                    @Override
+                    public void escribir(InscripcionDTO valor, DataOutputStream salida) throws IOException {
+                        escribirLong(salida, valor.getId());
+                        escribirLong(salida, valor.getEstudianteId());
+                        escribirLong(salida, valor.getMateriaId());
+                        escribirTexto(salida, valor.getEstado());
+                        escribirDecimal(salida, valor.getNota());
+                        escribirTexto(salida, valor.getObservaciones());
+                    }
+
+                    @Override
+                    public InscripcionDTO leer(DataInputStream entrada) throws IOException {
+                        InscripcionDTO dto = new InscripcionDTO();
+                        dto.setId(leerLong(entrada));
+                        dto.setEstudianteId(leerLong(entrada));
+                        dto.setMateriaId(leerLong(entrada));
+                        dto.setEstado(leerTexto(entrada));
+                        dto.setNota(leerDecimal(entrada));
+                        dto.setObservaciones(leerTexto(entrada));
+                        return dto;
+                    }
+                });
+    }
+}
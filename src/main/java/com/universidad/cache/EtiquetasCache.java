@@ -0,0 +1,22 @@
+package com.universidad.cache;
+
+import java.util.Collection;
+
+/**
+ * Regla que indica de qué datos depende una entrada de caché. Cada etiqueta
+ * nombra un dato ("estudiante:5", "materia:3"); al escribir ese dato se
+ * invalidan solo las entradas que lo llevan, en vez de vaciar la caché.
+ */
+@FunctionalInterface
+public interface EtiquetasCache {
+
+    Collection<String> etiquetas(Object key, Object value);
+
+    static String estudiante(Object estudianteId) {
+        return "estudiante:" + estudianteId;
+    }
+
+    static String materia(Object materiaId) {
+        return "materia:" + materiaId;
+    }
+}
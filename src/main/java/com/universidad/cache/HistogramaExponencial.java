@@ -0,0 +1,65 @@
+package com.universidad.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma con cubetas en potencias de 2 (≤1, ≤2, ≤4, ...), sin bloqueos.
+ * Los percentiles salen del límite superior de la cubeta, así que son una cota
+ * con error de hasta el doble; alcanza para dimensionar TTLs y tamaños.
+ */
+class HistogramaExponencial {
+
+    private static final int CUBETAS = 32;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final AtomicLong cantidad = new AtomicLong();
+    private final AtomicLong suma = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    void registrar(long valor) {
+        long positivo = Math.max(valor, 0);
+        int cubeta = positivo <= 1 ? 0 : Math.min(CUBETAS - 1, 64 - Long.numberOfLeadingZeros(positivo - 1));
+        cubetas.incrementAndGet(cubeta);
+        cantidad.incrementAndGet();
+        suma.addAndGet(positivo);
+        maximo.accumulateAndGet(positivo, Math::max);
+    }
+
+    Map<String, Object> resumen(String unidad) {
+        long total = cantidad.get();
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("cantidad", total);
+        resumen.put("promedio", total > 0 ? (double) suma.get() / total : 0);
+        resumen.put("maximo", maximo.get());
+        resumen.put("p50", percentil(0.50));
+        resumen.put("p99", percentil(0.99));
+        Map<String, Long> histograma = new LinkedHashMap<>();
+        for (int i = 0; i < CUBETAS; i++) {
+            long enCubeta = cubetas.get(i);
+            if (enCubeta > 0) {
+                histograma.put("<=" + (1L << i) + unidad, enCubeta);
+            }
+        }
+        resumen.put("histograma", histograma);
+        return resumen;
+    }
+
+    private long percentil(double percentil) {
+        long total = cantidad.get();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(percentil * total);
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= objetivo) {
+                return 1L << i;
+            }
+        }
+        return maximo.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.universidad.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Índice etiqueta -> entradas de caché, guardado en sets de Redis para que
+ * todos los nodos lo compartan. Cada entrada se identifica como
+ * "nombreCache::clave".
+ */
+@Component
+public class IndiceEtiquetas {
+
+    private static final String PREFIJO = "universidad_cache_etiqueta:";
+    // Entradas que se sacan del set por cada SPOP
+    private static final int LOTE_EXTRACCION = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    // Más largo que el TTL de las cachés: un set vencido solo deja de invalidar
+    // entradas que ya vencieron
+    @Value("${app.cache.etiquetas.ttl-minutos:120}")
+    private long ttlMinutos;
+
+    public IndiceEtiquetas(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Asocia la entrada a sus etiquetas, en una sola ida y vuelta a Redis.
+     */
+    public void registrar(String entrada, Collection<String> etiquetas) {
+        long ttlSegundos = ttlMinutos * 60;
+        redisTemplate.executePipelined((RedisCallback<Object>) conexionRedis -> {
+            // StringRedisTemplate entrega la conexión ya envuelta para String
+            StringRedisConnection conexion = (StringRedisConnection) conexionRedis;
+            for (String etiqueta : etiquetas) {
+                conexion.sAdd(PREFIJO + etiqueta, entrada);
+                conexion.expire(PREFIJO + etiqueta, ttlSegundos);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Quita y devuelve las entradas asociadas a las etiquetas. SPOP saca las
+     * entradas de forma atómica, así dos invalidaciones concurrentes no
+     * procesan la misma entrada dos veces.
+     */
+    public Set<String> extraer(Collection<String> etiquetas) {
+        Set<String> entradas = new HashSet<>();
+        for (String etiqueta : etiquetas) {
+            List<String> lote;
+            do {
+                lote = redisTemplate.opsForSet().pop(PREFIJO + etiqueta, LOTE_EXTRACCION);
+                if (lote != null) {
+                    entradas.addAll(lote);
+                }
+            } while (lote != null && lote.size() == LOTE_EXTRACCION);
+        }
+        return entradas;
+    }
+}
@@ -0,0 +1,49 @@
+package com.universidad.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Canal de invalidación dentro del mismo proceso, para una sola instancia o
+ * para pruebas. Cada instancia del canal hace de nodo: entrega a los receptores
+ * de los demás canales creados en el proceso, nunca a los propios.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidacion", havingValue = "local")
+public class LocalCanalInvalidacion implements CanalInvalidacion {
+
+    private static final List<LocalCanalInvalidacion> CANALES = new CopyOnWriteArrayList<>();
+
+    private final List<BiConsumer<String, String>> receptores = new CopyOnWriteArrayList<>();
+
+    public LocalCanalInvalidacion() {
+        CANALES.add(this);
+    }
+
+    @Override
+    public void publicar(String cacheName, String clave) {
+        for (LocalCanalInvalidacion canal : CANALES) {
+            if (canal != this) {
+                canal.receptores.forEach(receptor -> receptor.accept(cacheName, clave));
+            }
+        }
+    }
+
+    @Override
+    public void suscribir(BiConsumer<String, String> receptor) {
+        receptores.add(receptor);
+    }
+
+    /**
+     * Desconecta el canal de los demás del proceso.
+     */
+    @PreDestroy
+    public void cerrar() {
+        CANALES.remove(this);
+    }
+}
@@ -0,0 +1,78 @@
+package com.universidad.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Métricas de una caché además de aciertos y fallos: latencia de carga,
+ * tamaño serializado de los valores escritos y accesos por clave para
+ * {@link ClavesCalientes}.
+ *
+ * Con {@code @Cacheable} sin sync la carga no pasa por la caché: el
+ * interceptor hace get, ejecuta el método y hace put en el mismo hilo. La
+ * latencia se mide entre el fallo y el put de la misma clave en ese hilo.
+ */
+class MetricasCache {
+
+    private final String cache;
+    private final ClavesCalientes clavesCalientes;
+    // Tamaño del último valor serializado en este hilo; -1 si no se conoce
+    private final IntSupplier tamanoEscrito;
+
+    private final HistogramaExponencial latenciaCarga = new HistogramaExponencial();
+    private final HistogramaExponencial tamanos = new HistogramaExponencial();
+    private final ThreadLocal<FalloPendiente> falloPendiente = new ThreadLocal<>();
+
+    MetricasCache(String cache, ClavesCalientes clavesCalientes, IntSupplier tamanoEscrito) {
+        this.cache = cache;
+        this.clavesCalientes = clavesCalientes;
+        this.tamanoEscrito = tamanoEscrito;
+    }
+
+    private static final class FalloPendiente {
+        private final String clave;
+        private final long inicioNanos;
+
+        private FalloPendiente(String clave, long inicioNanos) {
+            this.clave = clave;
+            this.inicioNanos = inicioNanos;
+        }
+    }
+
+    void acceso(String clave) {
+        clavesCalientes.registrar(cache + TwoLevelCache.SEPARADOR + clave);
+    }
+
+    void fallo(String clave) {
+        falloPendiente.set(new FalloPendiente(clave, System.nanoTime()));
+    }
+
+    void cargado(long nanos) {
+        latenciaCarga.registrar(nanos / 1_000_000);
+    }
+
+    /**
+     * Llamar después de escribir en Redis, en el mismo hilo.
+     */
+    void escrito(String clave) {
+        FalloPendiente pendiente = falloPendiente.get();
+        if (pendiente != null) {
+            falloPendiente.remove();
+            if (pendiente.clave.equals(clave)) {
+                cargado(System.nanoTime() - pendiente.inicioNanos);
+            }
+        }
+        int tamano = tamanoEscrito.getAsInt();
+        if (tamano >= 0) {
+            tamanos.registrar(tamano);
+        }
+    }
+
+    Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("latenciaCarga", latenciaCarga.resumen("ms"));
+        resumen.put("tamanoValores", tamanos.resumen("B"));
+        return resumen;
+    }
+}
@@ -0,0 +1,68 @@
+package com.universidad.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Invalidaciones entre nodos por pub/sub de Redis. Cada mensaje lleva el ID
+ * del nodo que lo envía para ignorar los propios.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidacion", havingValue = "redis", matchIfMissing = true)
+public class RedisCanalInvalidacion implements CanalInvalidacion {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCanalInvalidacion.class);
+
+    private static final String CANAL = "universidad_cache_invalidacion";
+    // Marca de "toda la caché" en el mensaje
+    private static final String TODAS = "*";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private final String nodo = UUID.randomUUID().toString();
+
+    public RedisCanalInvalidacion(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = redisTemplate;
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.afterPropertiesSet();
+        this.container.start();
+    }
+
+    @PreDestroy
+    void detener() throws Exception {
+        container.destroy();
+    }
+
+    @Override
+    public void publicar(String cacheName, String clave) {
+        try {
+            redisTemplate.convertAndSend(CANAL, nodo + "|" + cacheName + "|" + (clave != null ? clave : TODAS));
+        } catch (RuntimeException e) {
+            // Los demás nodos corrigen con el TTL de L1
+            logger.warn("[CACHE] No se pudo publicar la invalidación de {}::{}", cacheName, clave, e);
+        }
+    }
+
+    @Override
+    public void suscribir(BiConsumer<String, String> receptor) {
+        container.addMessageListener((message, pattern) -> {
+            String[] partes = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+            if (partes.length < 3 || nodo.equals(partes[0])) {
+                return;
+            }
+            receptor.accept(partes[1], TODAS.equals(partes[2]) ? null : partes[2]);
+        }, new ChannelTopic(CANAL));
+    }
+}
@@ -0,0 +1,51 @@
+package com.universidad.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refresco anticipado de las cachés calientes. En cada acierto se decide al
+ * azar si recargar la entrada en segundo plano antes de que venza; la
+ * probabilidad sube a medida que se acerca el vencimiento y con lo que tardó la
+ * última carga (XFetch). Así una lista muy pedida se renueva antes de vencer y
+ * no se juntan en el vencimiento muchas recargas de la tabla completa.
+ *
+ * <pre>
+ * app.cache.refresco-anticipado.caches=materias,estudiantes,estudiantesActivos
+ * app.cache.refresco-anticipado.beta=1.0
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.refresco-anticipado")
+public class RefrescoAnticipadoProperties {
+
+    private boolean activo = true;
+
+    /**
+     * Cachés que se refrescan antes de vencer. Las demás solo comparten la
+     * carga entre pedidos simultáneos.
+     */
+    private List<String> caches = new ArrayList<>(List.of("materias", "estudiantes", "estudiantesActivos"));
+
+    /**
+     * Mayor que 1 refresca antes; menor que 1, más cerca del vencimiento.
+     */
+    private double beta = 1.0;
+
+    /**
+     * Hilos y cola de recargas en segundo plano. Si la cola está llena se
+     * descarta el refresco y se sigue sirviendo el valor actual.
+     */
+    private int hilos = 2;
+
+    private int capacidadCola = 32;
+
+    public boolean refrescaAntes(String cacheName) {
+        return activo && caches.contains(cacheName);
+    }
+}
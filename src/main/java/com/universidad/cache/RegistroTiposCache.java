@@ -0,0 +1,49 @@
+package com.universidad.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tipos que {@link BinaryRedisSerializer} sabe codificar en binario, cada uno
+ * con un ID fijo que se escribe en lugar del nombre de la clase. Los IDs se
+ * guardan en Redis: no se deben reutilizar ni cambiar entre versiones.
+ */
+public class RegistroTiposCache {
+
+    private final Map<Class<?>, Registro<?>> porClase = new HashMap<>();
+    private final Map<Integer, Registro<?>> porId = new HashMap<>();
+
+    /**
+     * @param id mayor que 0; el 0 está reservado para listas
+     */
+    public synchronized <T> RegistroTiposCache registrar(int id, Class<T> tipo, CodecTipo<T> codec) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("El ID de tipo debe ser mayor que 0: " + id);
+        }
+        if (porId.containsKey(id) || porClase.containsKey(tipo)) {
+            throw new IllegalArgumentException("Tipo ya registrado: " + id + " / " + tipo.getName());
+        }
+        Registro<T> registro = new Registro<>(id, codec);
+        porClase.put(tipo, registro);
+        porId.put(id, registro);
+        return this;
+    }
+
+    synchronized Registro<?> porClase(Class<?> tipo) {
+        return porClase.get(tipo);
+    }
+
+    synchronized Registro<?> porId(int id) {
+        return porId.get(id);
+    }
+
+    static final class Registro<T> {
+        final int id;
+        final CodecTipo<T> codec;
+
+        private Registro(int id, CodecTipo<T> codec) {
+            this.id = id;
+            this.codec = codec;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.universidad.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caché de dos niveles: una copia local acotada por peso (Caffeine) delante de
+ * la caché de Redis. Las lecturas prueban primero L1; lo que se encuentra en
+ * Redis se copia a L1. Toda escritura o invalidación va a Redis, descarta la
+ * copia local y avisa a los demás nodos por el {@link CanalInvalidacion}.
+ *
+ * Las claves de L1 son el texto de la clave, igual que en Redis, para que las
+ * invalidaciones recibidas de otros nodos coincidan. Sin L1 (local null) solo
+ * se usa Redis.
+ *
+ * Si la caché tiene una regla de {@link EtiquetasCache}, cada entrada guardada
+ * se registra en el {@link IndiceEtiquetas} para poder invalidarla por etiqueta.
+ *
+ * Las cargas con {@link #get(Object, Callable)} (los {@code @Cacheable(sync = true)})
+ * se comparten: si varios pedidos fallan a la vez sobre la misma clave, uno
+ * solo ejecuta la carga y los demás esperan su resultado. Con {@link Refresco}
+ * además los aciertos pueden recargar la entrada en segundo plano antes de que
+ * venza en Redis (XFetch); la decisión usa lo que tardó la última carga hecha
+ * en este nodo, así que las entradas cargadas por otro nodo no se refrescan
+ * desde aquí.
+ *
+ * Cada invalidación (local o de otro nodo) incrementa la generación de la
+ * clave; una carga o un refresco que empezó antes no guarda su resultado, así
+ * no vuelve a poner en la caché los datos anteriores al cambio.
+ */
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    // Separa el nombre de la caché y la clave en el índice de etiquetas
+    static final String SEPARADOR = "::";
+
+    private final String name;
+    private final org.springframework.cache.Cache redis;
+    private final Cache<String, Object> local;
+    private final CanalInvalidacion canal;
+    private final EtiquetasCache reglaEtiquetas;
+    private final IndiceEtiquetas indiceEtiquetas;
+    private final Refresco refresco;
+    private final MetricasCache metricas;
+
+    // Cargas en curso por clave, compartidas entre los pedidos que fallan a la vez
+    private final Map<String, CompletableFuture<Object>> cargasEnCurso = new ConcurrentHashMap<>();
+    // Duración de la última carga y vencimiento en Redis, solo con refresco anticipado
+    private final Map<String, UltimaCarga> ultimasCargas = new ConcurrentHashMap<>();
+    // Generación de las claves, repartidas en franjas para acotar la memoria: una
+    // invalidación de otra clave de la misma franja solo cuesta no guardar una carga
+    private static final int FRANJAS_GENERACION = 1024;
+    private final AtomicLongArray generaciones = new AtomicLongArray(FRANJAS_GENERACION);
+    // Se incrementa al vaciar la caché completa
+    private final AtomicLong generacionGlobal = new AtomicLong();
+
+    private final AtomicLong aciertosL1 = new AtomicLong();
+    private final AtomicLong aciertosL2 = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong cargasCompartidas = new AtomicLong();
+    private final AtomicLong refrescosAnticipados = new AtomicLong();
+    private final AtomicLong refrescosDescartados = new AtomicLong();
+    private final AtomicLong cargasObsoletas = new AtomicLong();
+
+    public TwoLevelCache(String name, org.springframework.cache.Cache redis, Cache<String, Object> local,
+            CanalInvalidacion canal, EtiquetasCache reglaEtiquetas, IndiceEtiquetas indiceEtiquetas,
+            Refresco refresco, MetricasCache metricas) {
+        this.name = name;
+        this.redis = redis;
+        this.local = local;
+        this.canal = canal;
+        this.reglaEtiquetas = reglaEtiquetas;
+        this.indiceEtiquetas = indiceEtiquetas;
+        this.refresco = refresco;
+        this.metricas = metricas;
+    }
+
+    /**
+     * Refresco anticipado de una caché: vida de las entradas en Redis, factor
+     * beta de XFetch y ejecutor de las recargas en segundo plano.
+     */
+    static final class Refresco {
+        private final Duration ttl;
+        private final double beta;
+        private final Executor ejecutor;
+
+        Refresco(Duration ttl, double beta, Executor ejecutor) {
+            this.ttl = ttl;
+            this.beta = beta;
+            this.ejecutor = ejecutor;
+        }
+    }
+
+    private static final class UltimaCarga {
+        private final long duracionMs;
+        private final long venceEn;
+
+        private UltimaCarga(long duracionMs, long venceEn) {
+            this.duracionMs = duracionMs;
+            this.venceEn = venceEn;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redis.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String clave = clave(key);
+        metricas.acceso(clave);
+        Object valor = leerLocal(clave);
+        if (valor != null) {
+            aciertosL1.incrementAndGet();
+            return new SimpleValueWrapper(valor);
+        }
+        ValueWrapper wrapper = redis.get(key);
+        if (wrapper != null) {
+            aciertosL2.incrementAndGet();
+            guardarLocal(clave, wrapper.get());
+        } else {
+            fallos.incrementAndGet();
+            metricas.fallo(clave);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object valor = wrapper != null ? wrapper.get() : null;
+        if (valor != null && type != null && !type.isInstance(valor)) {
+            throw new IllegalStateException("El valor cacheado no es del tipo " + type.getName() + ": " + valor);
+        }
+        return (T) valor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String clave = clave(key);
+        metricas.acceso(clave);
+        Object valor = leerLocal(clave);
+        if (valor != null) {
+            aciertosL1.incrementAndGet();
+        } else {
+            ValueWrapper wrapper = redis.get(key);
+            valor = wrapper != null ? wrapper.get() : null;
+            if (valor != null) {
+                aciertosL2.incrementAndGet();
+                guardarLocal(clave, valor);
+            }
+        }
+        if (valor != null) {
+            if (debeRefrescar(clave)) {
+                refrescarEnSegundoPlano(key, clave, valor, valueLoader);
+            }
+            return (T) valor;
+        }
+        return (T) cargarUnaVez(key, clave, valueLoader);
+    }
+
+    /**
+     * Carga la clave o, si otro pedido ya la está cargando, espera su resultado.
+     */
+    private Object cargarUnaVez(Object key, String clave, Callable<?> valueLoader) {
+        CompletableFuture<Object> carga = new CompletableFuture<>();
+        CompletableFuture<Object> enCurso = cargasEnCurso.putIfAbsent(clave, carga);
+        if (enCurso != null) {
+            cargasCompartidas.incrementAndGet();
+            return esperar(enCurso);
+        }
+        try {
+            // Pudo terminar otra carga entre la lectura y el registro de esta
+            ValueWrapper wrapper = redis.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                aciertosL2.incrementAndGet();
+                guardarLocal(clave, wrapper.get());
+                carga.complete(wrapper.get());
+                return wrapper.get();
+            }
+            fallos.incrementAndGet();
+            Object valor = cargar(key, clave, valueLoader);
+            carga.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            carga.completeExceptionally(e);
+            throw e;
+        } finally {
+            cargasEnCurso.remove(clave, carga);
+        }
+    }
+
+    private Object cargar(Object key, String clave, Callable<?> valueLoader) {
+        long generacion = generacion(clave);
+        long inicio = System.nanoTime();
+        Object valor;
+        try {
+            valor = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long duracion = System.nanoTime() - inicio;
+        metricas.cargado(duracion);
+        if (valor != null) {
+            // Invalidada durante la carga: el valor se devuelve pero no se guarda
+            if (generacion(clave) != generacion) {
+                cargasObsoletas.incrementAndGet();
+                return valor;
+            }
+            put(key, valor);
+            // Invalidada entre la comprobación y la escritura
+            if (generacion(clave) != generacion) {
+                cargasObsoletas.incrementAndGet();
+                evict(key);
+                return valor;
+            }
+            if (refresco != null) {
+                ultimasCargas.put(clave, new UltimaCarga(duracion / 1_000_000,
+                        System.currentTimeMillis() + refresco.ttl.toMillis()));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * XFetch: refrescar si ahora - duracion * beta * ln(rand) supera el
+     * vencimiento. Como ln(rand) es negativo, la probabilidad crece al acercarse
+     * el vencimiento y es mayor para las cargas que tardan más.
+     */
+    private boolean debeRefrescar(String clave) {
+        if (refresco == null) {
+            return false;
+        }
+        UltimaCarga ultima = ultimasCargas.get(clave);
+        if (ultima == null || cargasEnCurso.containsKey(clave)) {
+            return false;
+        }
+        double azar = ThreadLocalRandom.current().nextDouble();
+        double adelanto = -Math.max(ultima.duracionMs, 1) * refresco.beta * Math.log(azar);
+        return System.currentTimeMillis() + adelanto >= ultima.venceEn;
+    }
+
+    private void refrescarEnSegundoPlano(Object key, String clave, Object valorActual, Callable<?> valueLoader) {
+        CompletableFuture<Object> carga = new CompletableFuture<>();
+        if (cargasEnCurso.putIfAbsent(clave, carga) != null) {
+            return;
+        }
+        try {
+            refresco.ejecutor.execute(() -> {
+                try {
+                    carga.complete(cargar(key, clave, valueLoader));
+                    refrescosAnticipados.incrementAndGet();
+                } catch (RuntimeException e) {
+                    logger.warn("[CACHE] Falló el refresco anticipado de {}::{}", name, clave, e);
+                    carga.completeExceptionally(e);
+                } finally {
+                    cargasEnCurso.remove(clave, carga);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Cola de refrescos llena: se sigue sirviendo el valor actual
+            refrescosDescartados.incrementAndGet();
+            cargasEnCurso.remove(clave, carga);
+            carga.complete(valorActual);
+        }
+    }
+
+    private static Object esperar(CompletableFuture<Object> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redis.put(key, value);
+        String clave = clave(key);
+        metricas.escrito(clave);
+        etiquetar(key, clave, value);
+        guardarLocal(clave, value);
+        canal.publicar(name, clave);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper anterior = redis.putIfAbsent(key, value);
+        String clave = clave(key);
+        invalidarLocal(clave);
+        if (anterior == null) {
+            metricas.escrito(clave);
+            etiquetar(key, clave, value);
+            canal.publicar(name, clave);
+        }
+        return anterior;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redis.evict(key);
+        String clave = clave(key);
+        invalidarLocal(clave);
+        canal.publicar(name, clave);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean presente = redis.evictIfPresent(key);
+        String clave = clave(key);
+        invalidarLocal(clave);
+        canal.publicar(name, clave);
+        return presente;
+    }
+
+    @Override
+    public void clear() {
+        redis.clear();
+        invalidarLocal(null);
+        canal.publicar(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean habia = redis.invalidate();
+        invalidarLocal(null);
+        canal.publicar(name, null);
+        return habia;
+    }
+
+    /**
+     * Descarta la copia local por una invalidación de otro nodo; con clave null
+     * descarta toda la caché local.
+     */
+    void invalidarLocal(String clave) {
+        if (clave == null) {
+            generacionGlobal.incrementAndGet();
+            ultimasCargas.clear();
+        } else {
+            generaciones.incrementAndGet(franja(clave));
+            ultimasCargas.remove(clave);
+        }
+        if (local == null) {
+            return;
+        }
+        if (clave == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(clave);
+        }
+    }
+
+    Map<String, Object> obtenerEstadisticas() {
+        long l1 = aciertosL1.get();
+        long l2 = aciertosL2.get();
+        long total = l1 + l2 + fallos.get();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("cache", name);
+        estadisticas.put("aciertosL1", l1);
+        estadisticas.put("aciertosL2", l2);
+        estadisticas.put("fallos", fallos.get());
+        estadisticas.put("cargasCompartidas", cargasCompartidas.get());
+        estadisticas.put("refrescosAnticipados", refrescosAnticipados.get());
+        estadisticas.put("refrescosDescartados", refrescosDescartados.get());
+        estadisticas.put("cargasObsoletas", cargasObsoletas.get());
+        estadisticas.put("ratioL1", total > 0 ? (double) l1 / total : 0);
+        estadisticas.put("ratioL2", total > 0 ? (double) l2 / total : 0);
+        estadisticas.put("entradasL1", local != null ? local.estimatedSize() : 0);
+        estadisticas.putAll(metricas.resumen());
+        estadisticas.put("pesoL1", local == null ? 0L : local.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        return estadisticas;
+    }
+
+    private Object leerLocal(String clave) {
+        return local != null ? local.getIfPresent(clave) : null;
+    }
+
+    private void guardarLocal(String clave, Object valor) {
+        if (local != null && valor != null) {
+            local.put(clave, valor);
+        }
+    }
+
+    /**
+     * Registra la entrada bajo sus etiquetas. Si no se puede registrar, se
+     * descarta la entrada: sin etiquetas no se podría invalidar.
+     */
+    private void etiquetar(Object key, String clave, Object valor) {
+        if (reglaEtiquetas == null || valor == null) {
+            return;
+        }
+        Collection<String> etiquetas = reglaEtiquetas.etiquetas(key, valor);
+        if (etiquetas.isEmpty()) {
+            return;
+        }
+        try {
+            indiceEtiquetas.registrar(name + SEPARADOR + clave, etiquetas);
+        } catch (RuntimeException e) {
+            logger.warn("[CACHE] No se pudieron registrar las etiquetas de {}::{}, se descarta la entrada", name, clave, e);
+            redis.evict(key);
+        }
+    }
+
+    // Las dos partes solo crecen: la suma cambia si cambia cualquiera de ellas
+    private long generacion(String clave) {
+        return generacionGlobal.get() + generaciones.get(franja(clave));
+    }
+
+    private static int franja(String clave) {
+        return (clave.hashCode() & 0x7fffffff) % FRANJAS_GENERACION;
+    }
+
+    private static String clave(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,226 @@
+package com.universidad.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * {@link CacheManager} que envuelve cada caché de Redis en una
+ * {@link TwoLevelCache} con su propia L1 local (sin L1 si está desactivada).
+ *
+ * Las cachés con una regla de {@link EtiquetasCache} registrada se pueden
+ * invalidar por etiqueta con {@link #invalidarEtiquetas(Collection)}.
+ *
+ * Las cachés de {@link RefrescoAnticipadoProperties} se recargan en segundo
+ * plano antes de vencer, en un pool chico compartido por todas.
+ *
+ * Cada caché lleva además latencia de carga y tamaño de valores, y los accesos
+ * de todas alimentan un único ranking de claves calientes.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CacheManager redisCacheManager;
+    private final CacheL1Properties properties;
+    private final CanalInvalidacion canal;
+    private final IndiceEtiquetas indiceEtiquetas;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, EtiquetasCache> reglasEtiquetas = new ConcurrentHashMap<>();
+    private final RefrescoAnticipadoProperties refrescoProperties;
+    private final Function<String, Duration> ttlPorCache;
+    private final ThreadPoolExecutor ejecutorRefresco;
+    private ClavesCalientes clavesCalientes = new ClavesCalientes(20);
+    private IntSupplier tamanoEscrito = () -> -1;
+
+    /**
+     * @param ttlPorCache vida de las entradas en Redis de cada caché, para
+     *                    saber cuándo vencen las que se refrescan antes
+     */
+    public TwoLevelCacheManager(CacheManager redisCacheManager, CacheL1Properties properties,
+            CanalInvalidacion canal, IndiceEtiquetas indiceEtiquetas,
+            RefrescoAnticipadoProperties refrescoProperties, Function<String, Duration> ttlPorCache) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.canal = canal;
+        this.indiceEtiquetas = indiceEtiquetas;
+        this.refrescoProperties = refrescoProperties;
+        this.ttlPorCache = ttlPorCache;
+        AtomicInteger hilos = new AtomicInteger();
+        this.ejecutorRefresco = new ThreadPoolExecutor(refrescoProperties.getHilos(), refrescoProperties.getHilos(),
+                30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(refrescoProperties.getCapacidadCola()), tarea -> {
+                    Thread hilo = new Thread(tarea, "cache-refresco-" + hilos.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        this.ejecutorRefresco.allowCoreThreadTimeOut(true);
+        canal.suscribir(this::invalidarLocal);
+    }
+
+    /**
+     * Registra la regla de etiquetas de una caché; debe hacerse antes de usarla.
+     */
+    public TwoLevelCacheManager registrarEtiquetas(String cacheName, EtiquetasCache regla) {
+        reglasEtiquetas.put(cacheName, regla);
+        return this;
+    }
+
+    /**
+     * Cantidad de claves calientes a seguir y cómo obtener el tamaño del valor
+     * recién escrito en Redis; debe hacerse antes de usar las cachés.
+     */
+    public TwoLevelCacheManager instrumentar(int topClaves, IntSupplier tamanoEscrito) {
+        this.clavesCalientes = new ClavesCalientes(topClaves);
+        this.tamanoEscrito = tamanoEscrito;
+        return this;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redis = redisCacheManager.getCache(name);
+        if (redis == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(n, redis, crearLocal(n), canal,
+                reglasEtiquetas.get(n), indiceEtiquetas, crearRefresco(n),
+                new MetricasCache(n, clavesCalientes, tamanoEscrito)));
+    }
+
+    private TwoLevelCache.Refresco crearRefresco(String name) {
+        if (!refrescoProperties.refrescaAntes(name)) {
+            return null;
+        }
+        return new TwoLevelCache.Refresco(ttlPorCache.apply(name), refrescoProperties.getBeta(), ejecutorRefresco);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> crearLocal(String name) {
+        if (!properties.isActiva()) {
+            return null;
+        }
+        return Caffeine.newBuilder()
+                .maximumWeight(properties.pesoMaximo(name))
+                .weigher((String clave, Object valor) -> peso(valor))
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSegundos()))
+                .build();
+    }
+
+    /**
+     * Invalida las entradas que llevan alguna de las etiquetas. Dentro de una
+     * transacción se invalida después del commit, para que nadie vuelva a
+     * cachear los datos anteriores mientras la transacción sigue abierta.
+     */
+    public void invalidarEtiquetas(Collection<String> etiquetas) {
+        if (etiquetas.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictarEtiquetas(etiquetas);
+                }
+            });
+        } else {
+            evictarEtiquetas(etiquetas);
+        }
+    }
+
+    private void evictarEtiquetas(Collection<String> etiquetas) {
+        Set<String> entradas;
+        try {
+            entradas = indiceEtiquetas.extraer(etiquetas);
+        } catch (RuntimeException e) {
+            // Sin índice no se sabe qué entradas dependen de las etiquetas: se
+            // vacían completas las cachés que usan etiquetas
+            logger.warn("[CACHE] No se pudo leer el índice de etiquetas {}, se vacían las cachés etiquetadas",
+                    etiquetas, e);
+            reglasEtiquetas.keySet().forEach(nombre -> {
+                Cache cache = getCache(nombre);
+                if (cache != null) {
+                    cache.clear();
+                }
+            });
+            return;
+        }
+        for (String entrada : entradas) {
+            int separador = entrada.indexOf(TwoLevelCache.SEPARADOR);
+            if (separador < 0) {
+                continue;
+            }
+            Cache cache = getCache(entrada.substring(0, separador));
+            if (cache != null) {
+                cache.evict(entrada.substring(separador + TwoLevelCache.SEPARADOR.length()));
+            }
+        }
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * Aciertos en L1 y en Redis, fallos, cargas compartidas, refrescos
+     * anticipados, latencia de carga, tamaño de valores y ocupación de L1 por
+     * caché.
+     */
+    public List<Map<String, Object>> obtenerEstadisticas() {
+        List<Map<String, Object>> estadisticas = new ArrayList<>();
+        caches.values().forEach(cache -> estadisticas.add(cache.obtenerEstadisticas()));
+        return estadisticas;
+    }
+
+    /**
+     * Claves más pedidas de todas las cachés ("cache::clave") con su
+     * frecuencia estimada reciente.
+     */
+    public List<Map<String, Object>> obtenerClavesCalientes() {
+        return clavesCalientes.obtenerTop();
+    }
+
+    /**
+     * Spring lo llama al cerrar el contexto; los refrescos pendientes se pierden.
+     */
+    public void close() {
+        ejecutorRefresco.shutdownNow();
+    }
+
+    private void invalidarLocal(String cacheName, String clave) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidarLocal(clave);
+        }
+    }
+
+    private static int peso(Object valor) {
+        if (valor instanceof Collection<?> coleccion) {
+            return 1 + coleccion.size();
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            return 1 + mapa.size();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,185 @@
+package com.universidad.concurrency;
+
+import com.universidad.config.AdmisionInscripcionesProperties;
+import com.universidad.config.AdmisionInscripcionesProperties.Ventana;
+import com.universidad.event.InscripcionEstadoCambiadoEvent;
+import com.universidad.exception.AdmisionRechazadaException;
+import com.universidad.model.Inscripcion.EstadoInscripcion;
+import com.universidad.repository.EstudianteRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Control de admisión de inscripciones por ventanas prioritarias. Cada
+ * estudiante pertenece a una ventana según sus créditos aprobados y su
+ * cohorte; antes de la apertura de su ventana se le indica cuándo reintentar y,
+ * una vez abierta, un token bucket por ventana reparte la carga en el tiempo en
+ * lugar de dejar que todos lleguen a la base en el mismo instante. Quien no
+ * cumple los criterios de ninguna ventana queda en la de apertura más tardía,
+ * con su apertura y su tasa.
+ *
+ * Los buckets son locales a cada nodo, así que la tasa configurada es por
+ * nodo y no global.
+ */
+@Component
+public class AdmisionInscripciones {
+
+    private static final int SIN_VENTANA = -1;
+
+    @Autowired
+    private AdmisionInscripcionesProperties properties;
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    private TokenBucket[] buckets;
+    // Ventana de quienes no cumplen ninguna: la que abre último
+    private int ventanaGeneral;
+    private AtomicLongArray admitidas;
+    private AtomicLongArray rechazadasPorApertura;
+    private AtomicLongArray rechazadasPorTasa;
+
+    // estudianteId -> índice de su ventana; cambia solo cuando aprueba materias
+    private final ConcurrentHashMap<Long, Integer> ventanaPorEstudiante = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() {
+        List<Ventana> ventanas = properties.getVentanas();
+        buckets = new TokenBucket[ventanas.size()];
+        for (int i = 0; i < ventanas.size(); i++) {
+            buckets[i] = new TokenBucket(ventanas.get(i).getTasaPorSegundo(), ventanas.get(i).getRafaga());
+        }
+        ventanaGeneral = indiceAperturaMasTardia(ventanas);
+        admitidas = new AtomicLongArray(ventanas.size());
+        rechazadasPorApertura = new AtomicLongArray(ventanas.size());
+        rechazadasPorTasa = new AtomicLongArray(ventanas.size());
+    }
+
+    /**
+     * Admite la solicitud del estudiante o la rechaza indicando cuándo reintentar.
+     *
+     * @throws AdmisionRechazadaException si su ventana no abrió o superó la tasa
+     */
+    public void admitir(Long estudianteId) {
+        if (buckets.length == 0) {
+            return;
+        }
+        int indice = ventanaDe(estudianteId);
+        if (indice == SIN_VENTANA) {
+            return;
+        }
+        Ventana ventana = properties.getVentanas().get(indice);
+        LocalDateTime ahora = LocalDateTime.now();
+        if (ventana.getApertura() != null && ahora.isBefore(ventana.getApertura())) {
+            rechazadasPorApertura.incrementAndGet(indice);
+            long segundos = (Duration.between(ahora, ventana.getApertura()).toMillis() + 999) / 1000;
+            throw new AdmisionRechazadaException(
+                    "La ventana de inscripción '" + ventana.getNombre() + "' abre el " + ventana.getApertura(),
+                    Math.max(1, segundos));
+        }
+        long esperaNanos = buckets[indice].intentarConsumir();
+        if (esperaNanos > 0) {
+            rechazadasPorTasa.incrementAndGet(indice);
+            throw new AdmisionRechazadaException(
+                    "La ventana de inscripción '" + ventana.getNombre() + "' está al máximo de su tasa",
+                    Math.max(1, (esperaNanos + 999_999_999L) / 1_000_000_000L));
+        }
+        admitidas.incrementAndGet(indice);
+    }
+
+    private int ventanaDe(Long estudianteId) {
+        Integer indice = ventanaPorEstudiante.get(estudianteId);
+        if (indice != null) {
+            return indice;
+        }
+        List<Object[]> perfil = estudianteRepository.findPerfilAdmision(estudianteId);
+        if (perfil.isEmpty()) {
+            // Estudiante inexistente: la inscripción lo rechazará con su propio mensaje
+            return SIN_VENTANA;
+        }
+        Object[] fila = perfil.get(0);
+        Integer cohorte = fila[0] != null ? toLocalDate(fila[0]).getYear() : null;
+        int creditos = ((Number) fila[1]).intValue();
+        indice = resolverVentana(creditos, cohorte);
+
+        if (ventanaPorEstudiante.size() >= properties.getMaxEstudiantes()) {
+            ventanaPorEstudiante.clear();
+        }
+        ventanaPorEstudiante.put(estudianteId, indice);
+        return indice;
+    }
+
+    private int resolverVentana(int creditos, Integer cohorte) {
+        List<Ventana> ventanas = properties.getVentanas();
+        for (int i = 0; i < ventanas.size(); i++) {
+            Ventana ventana = ventanas.get(i);
+            boolean cumpleCreditos = ventana.getCreditosMinimos() == null || creditos >= ventana.getCreditosMinimos();
+            boolean cumpleCohorte = ventana.getCohorteMaxima() == null
+                    || (cohorte != null && cohorte <= ventana.getCohorteMaxima());
+            if (cumpleCreditos && cumpleCohorte) {
+                return i;
+            }
+        }
+        return ventanaGeneral;
+    }
+
+    // Una ventana sin apertura está siempre abierta: cuenta como la más temprana
+    private static int indiceAperturaMasTardia(List<Ventana> ventanas) {
+        int indice = ventanas.size() - 1;
+        LocalDateTime masTardia = null;
+        for (int i = 0; i < ventanas.size(); i++) {
+            LocalDateTime apertura = ventanas.get(i).getApertura();
+            if (apertura != null && (masTardia == null || apertura.isAfter(masTardia))) {
+                masTardia = apertura;
+                indice = i;
+            }
+        }
+        return indice;
+    }
+
+    private static LocalDate toLocalDate(Object valor) {
+        return valor instanceof java.sql.Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
+
+    /**
+     * Los créditos aprobados solo cambian al entrar o salir de APROBADA; en
+     * ese caso se vuelve a calcular la ventana del estudiante.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInscripcionEstadoCambiado(InscripcionEstadoCambiadoEvent event) {
+        if (event.getEstadoAnterior() == EstadoInscripcion.APROBADA
+                || event.getEstadoNuevo() == EstadoInscripcion.APROBADA) {
+            ventanaPorEstudiante.remove(event.getEstudianteId());
+        }
+    }
+
+    public List<Map<String, Object>> obtenerEstadisticas() {
+        List<Ventana> ventanas = properties.getVentanas();
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Map<String, Object>> estadisticas = new ArrayList<>(ventanas.size());
+        for (int i = 0; i < ventanas.size(); i++) {
+            Ventana ventana = ventanas.get(i);
+            Map<String, Object> porVentana = new LinkedHashMap<>();
+            porVentana.put("nombre", ventana.getNombre());
+            porVentana.put("apertura", ventana.getApertura());
+            porVentana.put("abierta", ventana.getApertura() == null || !ahora.isBefore(ventana.getApertura()));
+            porVentana.put("admitidas", admitidas.get(i));
+            porVentana.put("rechazadasPorApertura", rechazadasPorApertura.get(i));
+            porVentana.put("rechazadasPorTasa", rechazadasPorTasa.get(i));
+            estadisticas.add(porVentana);
+        }
+        return estadisticas;
+    }
+}
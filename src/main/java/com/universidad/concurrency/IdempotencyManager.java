@@ -0,0 +1,133 @@
+package com.universidad.concurrency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Aplica la cabecera {@code Idempotency-Key} a un endpoint: la primera
+ * solicitud con una clave se ejecuta y su respuesta se guarda; los reintentos
+ * con la misma clave reciben esa respuesta sin volver a ejecutar la acción.
+ *
+ * Mientras la solicitud original se procesa, un reintento concurrente recibe
+ * 409 en lugar de ejecutarse en paralelo. Las respuestas 5xx y las excepciones
+ * liberan la clave para que el cliente pueda reintentar.
+ */
+@Component
+public class IdempotencyManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyManager.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong solicitudes = new AtomicLong();
+    private final AtomicLong ejecutadas = new AtomicLong();
+    private final AtomicLong repetidas = new AtomicLong();
+    private final AtomicLong enConflicto = new AtomicLong();
+
+    /**
+     * Ejecuta la acción una sola vez por clave.
+     *
+     * @param ambito prefijo que acota la clave al recurso (por ejemplo estudiante y materia)
+     * @param clave valor de la cabecera; si es null la acción se ejecuta sin idempotencia
+     */
+    public ResponseEntity<?> ejecutar(String ambito, String clave, Supplier<ResponseEntity<?>> accion) {
+        return ejecutar(ambito, clave, () -> { }, accion);
+    }
+
+    /**
+     * Como {@link #ejecutar(String, String, Supplier)}, pero antes de la acción
+     * aplica el control de admisión. Los reintentos que se responden desde el
+     * almacén no pasan por él: una respuesta ya dada no vuelve a consumir tasa
+     * ni puede rechazarse con 429.
+     *
+     * @param admision control que lanza una excepción si la solicitud no se admite
+     */
+    public ResponseEntity<?> ejecutar(String ambito, String clave, Runnable admision,
+            Supplier<ResponseEntity<?>> accion) {
+        if (clave == null || clave.isBlank()) {
+            admision.run();
+            return accion.get();
+        }
+        solicitudes.incrementAndGet();
+        String claveCompleta = ambito + ":" + clave;
+
+        StoredResponse previa = store.obtener(claveCompleta);
+        if (previa != null) {
+            return repetir(previa);
+        }
+        if (!store.reservar(claveCompleta)) {
+            previa = store.obtener(claveCompleta);
+            if (previa != null) {
+                return repetir(previa);
+            }
+            enConflicto.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        ejecutadas.incrementAndGet();
+        ResponseEntity<?> respuesta;
+        try {
+            admision.run();
+            respuesta = accion.get();
+        } catch (RuntimeException e) {
+            store.liberar(claveCompleta);
+            throw e;
+        }
+        if (respuesta.getStatusCode().is5xxServerError()) {
+            store.liberar(claveCompleta);
+            return respuesta;
+        }
+        try {
+            String cuerpo = respuesta.getBody() != null ? objectMapper.writeValueAsString(respuesta.getBody()) : null;
+            store.guardar(claveCompleta, new StoredResponse(respuesta.getStatusCode().value(), cuerpo));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // La acción ya se ejecutó; sin respuesta guardada un reintento volvería a validarse normalmente
+            logger.warn("[IDEMPOTENCIA] No se pudo guardar la respuesta para la clave {}", claveCompleta, e);
+            store.liberar(claveCompleta);
+        }
+        return respuesta;
+    }
+
+    private ResponseEntity<?> repetir(StoredResponse previa) {
+        repetidas.incrementAndGet();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(previa.getStatus())
+                .header(HEADER_REPETIDA, "true");
+        if (previa.getBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(previa.getBody());
+    }
+
+    /**
+     * Contadores de uso: solicitudes con clave, ejecutadas, respondidas desde
+     * el almacén y rechazadas por estar la original todavía en proceso.
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("almacen", store.getClass().getSimpleName());
+        estadisticas.put("solicitudesConClave", solicitudes.get());
+        estadisticas.put("ejecutadas", ejecutadas.get());
+        estadisticas.put("repetidas", repetidas.get());
+        estadisticas.put("enConflicto", enConflicto.get());
+        return estadisticas;
+    }
+}
@@ -0,0 +1,31 @@
+package com.universidad.concurrency;
+
+/**
+ * Almacén de claves de idempotencia con expiración. Una clave pasa por dos
+ * estados: reservada (la solicitud original todavía se está procesando) y
+ * completada (con la respuesta que se repite ante duplicados).
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Devuelve la respuesta guardada para la clave, o null si la clave no existe
+     * o todavía está en proceso.
+     */
+    StoredResponse obtener(String clave);
+
+    /**
+     * Reserva la clave para procesar la solicitud original.
+     * @return true si la clave no existía y quedó reservada
+     */
+    boolean reservar(String clave);
+
+    /**
+     * Guarda la respuesta de la solicitud original para repetirla.
+     */
+    void guardar(String clave, StoredResponse respuesta);
+
+    /**
+     * Libera una clave reservada cuya solicitud falló, para que pueda reintentarse.
+     */
+    void liberar(String clave);
+}
@@ -0,0 +1,90 @@
+package com.universidad.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Almacén de idempotencia en memoria, acotado en cantidad de entradas y con
+ * expiración por tiempo. Cuando se llena descarta primero las entradas más
+ * antiguas.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotencia.almacen", havingValue = "memoria", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlMillis;
+    private final int maxEntradas;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(@Value("${app.idempotencia.ttl-minutos:60}") long ttlMinutos,
+            @Value("${app.idempotencia.max-entradas:100000}") int maxEntradas) {
+        this.ttlMillis = ttlMinutos * 60_000L;
+        this.maxEntradas = maxEntradas;
+    }
+
+    @Override
+    public synchronized StoredResponse obtener(String clave) {
+        Entrada entrada = vigente(clave);
+        return entrada != null ? entrada.respuesta : null;
+    }
+
+    @Override
+    public synchronized boolean reservar(String clave) {
+        if (vigente(clave) != null) {
+            return false;
+        }
+        purgar();
+        entradas.put(clave, new Entrada(null, System.currentTimeMillis() + ttlMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void guardar(String clave, StoredResponse respuesta) {
+        entradas.remove(clave);
+        purgar();
+        entradas.put(clave, new Entrada(respuesta, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public synchronized void liberar(String clave) {
+        entradas.remove(clave);
+    }
+
+    private Entrada vigente(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && entrada.expiraEn <= System.currentTimeMillis()) {
+            entradas.remove(clave);
+            return null;
+        }
+        return entrada;
+    }
+
+    // Las entradas están en orden de inserción y todas tienen el mismo TTL, así
+    // que las vencidas y las más antiguas siempre están al principio
+    private void purgar() {
+        long ahora = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Entrada entrada = it.next().getValue();
+            if (entrada.expiraEn > ahora && entradas.size() < maxEntradas) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private static final class Entrada {
+        private final StoredResponse respuesta;
+        private final long expiraEn;
+
+        private Entrada(StoredResponse respuesta, long expiraEn) {
+            this.respuesta = respuesta;
+            this.expiraEn = expiraEn;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.universidad.concurrency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.universidad.event.EvaluacionDocenteCambiadaEvent;
+import com.universidad.exception.ServicioSaturadoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingesta diferida (write-behind) de evaluaciones de docentes para los picos de
+ * fin de semestre.
+ *
+ * Cada evaluación aceptada se anota en un diario local de solo agregado y se
+ * deja en un buffer acotado; la respuesta no espera a la base de datos. Un hilo
+ * escritor vacía el buffer periódicamente con inserciones en lote. Con el buffer
+ * lleno se rechaza con {@link ServicioSaturadoException} (503).
+ *
+ * El diario se divide en segmentos: antes de vaciar el buffer el escritor abre
+ * un segmento nuevo y borra los anteriores recién cuando sus evaluaciones quedan
+ * guardadas. Al iniciar se reprocesan los segmentos que hayan quedado; cada
+ * evaluación lleva una clave de ingesta única, así que reprocesar no duplica.
+ */
+@Component
+public class IngestaEvaluaciones {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestaEvaluaciones.class);
+
+    private static final String PREFIJO_SEGMENTO = "evaluaciones-";
+    private static final String EXTENSION_SEGMENTO = ".diario";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO evaluacion_docente (docente_id, puntuacion, comentario, fecha, clave_ingesta) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (clave_ingesta) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.evaluaciones.ingesta.activa:false}")
+    private boolean activa;
+
+    @Value("${app.evaluaciones.ingesta.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${app.evaluaciones.ingesta.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${app.evaluaciones.ingesta.intervalo-ms:200}")
+    private long intervaloMs;
+
+    @Value("${app.evaluaciones.ingesta.directorio:data/ingesta-evaluaciones}")
+    private String directorio;
+
+    // Con true cada evaluación se fuerza a disco antes de responder
+    @Value("${app.evaluaciones.ingesta.fsync:false}")
+    private boolean fsync;
+
+    // Protege el segmento abierto y el encolado, para que lo que está en la cola
+    // sea siempre lo anotado en los segmentos que se rotan
+    private final Object lockDiario = new Object();
+
+    private BlockingQueue<EvaluacionPendiente> cola;
+    private Path carpeta;
+    private Path segmentoActual;
+    private FileChannel diario;
+    private long numeroSegmento;
+
+    // Solo los usa el hilo escritor (y la recuperación antes de arrancarlo)
+    private final List<EvaluacionPendiente> pendientes = new ArrayList<>();
+    private final List<Path> segmentosCerrados = new ArrayList<>();
+
+    private Thread escritor;
+    private volatile boolean detenido;
+
+    private final AtomicLong aceptadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong insertadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong recuperadas = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        if (!activa) {
+            return;
+        }
+        cola = new ArrayBlockingQueue<>(capacidad);
+        carpeta = Paths.get(directorio);
+        Files.createDirectories(carpeta);
+        recuperar();
+        abrirSegmento();
+        escritor = new Thread(this::ejecutar, "ingesta-evaluaciones");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        detenido = true;
+        escritor.interrupt();
+        escritor.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isActiva() {
+        return activa;
+    }
+
+    /**
+     * Anota la evaluación en el diario y la deja en el buffer.
+     * @return clave de ingesta asignada a la evaluación
+     * @throws ServicioSaturadoException si el buffer está lleno o no se pudo escribir el diario
+     */
+    public String encolar(Long docenteId, Integer puntuacion, String comentario, LocalDate fecha) {
+        EvaluacionPendiente pendiente = new EvaluacionPendiente(
+                UUID.randomUUID().toString(), docenteId, puntuacion, comentario, fecha);
+        byte[] linea;
+        try {
+            linea = (objectMapper.writeValueAsString(pendiente) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Evaluación no serializable", e);
+        }
+        synchronized (lockDiario) {
+            if (cola.remainingCapacity() == 0) {
+                rechazadas.incrementAndGet();
+                throw new ServicioSaturadoException("El buffer de evaluaciones está lleno");
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(linea);
+                while (buffer.hasRemaining()) {
+                    diario.write(buffer);
+                }
+                if (fsync) {
+                    diario.force(false);
+                }
+            } catch (IOException e) {
+                rechazadas.incrementAndGet();
+                throw new ServicioSaturadoException("No se pudo registrar la evaluación en el diario", e);
+            }
+            // Solo el escritor saca de la cola y lo hace bajo este lock: hay lugar
+            cola.add(pendiente);
+        }
+        aceptadas.incrementAndGet();
+        return pendiente.getClave();
+    }
+
+    private void ejecutar() {
+        while (!detenido) {
+            try {
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+            vaciar();
+        }
+        // Último vaciado al detener; lo que no se guarde queda en el diario
+        vaciar();
+    }
+
+    private void vaciar() {
+        // Mientras haya pendientes de un ciclo fallido no se saca más de la cola,
+        // así el buffer se llena y se aplica la contrapresión
+        synchronized (lockDiario) {
+            if (pendientes.isEmpty() && !cola.isEmpty()) {
+                cola.drainTo(pendientes);
+                rotarSegmento();
+            }
+        }
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        try {
+            for (int desde = 0; desde < pendientes.size(); desde += tamanoLote) {
+                insertarLote(pendientes.subList(desde, Math.min(desde + tamanoLote, pendientes.size())));
+            }
+        } catch (DataAccessException e) {
+            // Se reintenta todo en el próximo ciclo; la clave de ingesta evita duplicados
+            logger.warn("[EVALUACION] No se pudieron guardar {} evaluaciones en cola, se reintenta",
+                    pendientes.size(), e);
+            return;
+        }
+        long fin = System.currentTimeMillis();
+        logger.info("[EVALUACION] Ingesta de {} evaluaciones guardada (Duracion: {} ms)",
+                pendientes.size(), (fin - inicio));
+        pendientes.clear();
+        for (Path segmento : segmentosCerrados) {
+            try {
+                Files.deleteIfExists(segmento);
+            } catch (IOException e) {
+                logger.warn("[EVALUACION] No se pudo borrar el segmento de diario {}", segmento, e);
+            }
+        }
+        segmentosCerrados.clear();
+    }
+
+    private void insertarLote(List<EvaluacionPendiente> lote) {
+        lotes.incrementAndGet();
+        int[] filas;
+        try {
+            filas = jdbcTemplate.batchUpdate(SQL_INSERTAR, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    asignarParametros(ps, lote.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return lote.size();
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Alguna fila es inválida (p. ej. el docente se eliminó): se insertan de a una
+            logger.warn("[EVALUACION] Falló el lote de {} evaluaciones, se insertan individualmente", lote.size(), e);
+            filas = new int[lote.size()];
+            for (int i = 0; i < lote.size(); i++) {
+                EvaluacionPendiente pendiente = lote.get(i);
+                try {
+                    filas[i] = jdbcTemplate.update(SQL_INSERTAR, ps -> asignarParametros(ps, pendiente));
+                } catch (DataIntegrityViolationException individual) {
+                    descartadas.incrementAndGet();
+                    logger.error("[EVALUACION] Evaluación {} descartada: {}", pendiente.getClave(),
+                            individual.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            // 0 significa que la clave ya estaba guardada (reproceso del diario)
+            if (filas[i] != 0) {
+                insertadas.incrementAndGet();
+                EvaluacionPendiente pendiente = lote.get(i);
+                eventPublisher.publishEvent(new EvaluacionDocenteCambiadaEvent(
+                        null, pendiente.getDocenteId(), pendiente.getPuntuacion(), pendiente.getFecha(), true));
+            }
+        }
+    }
+
+    private static void asignarParametros(PreparedStatement ps, EvaluacionPendiente pendiente) throws SQLException {
+        ps.setLong(1, pendiente.getDocenteId());
+        if (pendiente.getPuntuacion() != null) {
+            ps.setInt(2, pendiente.getPuntuacion());
+        } else {
+            ps.setNull(2, Types.INTEGER);
+        }
+        ps.setString(3, pendiente.getComentario());
+        ps.setDate(4, pendiente.getFecha() != null ? Date.valueOf(pendiente.getFecha()) : null);
+        ps.setString(5, pendiente.getClave());
+    }
+
+    /**
+     * Carga los segmentos que quedaron de una ejecución anterior para que el
+     * escritor los guarde en su primer ciclo.
+     */
+    private void recuperar() throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(carpeta,
+                PREFIJO_SEGMENTO + "*" + EXTENSION_SEGMENTO)) {
+            stream.forEach(segmentos::add);
+        }
+        segmentos.sort(null);
+        for (Path segmento : segmentos) {
+            String nombre = segmento.getFileName().toString();
+            String numero = nombre.substring(PREFIJO_SEGMENTO.length(), nombre.length() - EXTENSION_SEGMENTO.length());
+            try {
+                numeroSegmento = Math.max(numeroSegmento, Long.parseLong(numero));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            for (String linea : Files.readAllLines(segmento, StandardCharsets.UTF_8)) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                try {
+                    pendientes.add(objectMapper.readValue(linea, EvaluacionPendiente.class));
+                } catch (JsonProcessingException e) {
+                    // Típicamente la última línea, cortada por una caída a mitad de escritura
+                    logger.warn("[EVALUACION] Línea inválida en el diario {}, se ignora", segmento);
+                }
+            }
+            segmentosCerrados.add(segmento);
+        }
+        recuperadas.set(pendientes.size());
+        if (!pendientes.isEmpty()) {
+            logger.info("[EVALUACION] {} evaluaciones recuperadas de {} segmentos de diario",
+                    pendientes.size(), segmentosCerrados.size());
+        }
+    }
+
+    private void abrirSegmento() throws IOException {
+        numeroSegmento++;
+        segmentoActual = carpeta.resolve(String.format("%s%019d%s", PREFIJO_SEGMENTO, numeroSegmento, EXTENSION_SEGMENTO));
+        diario = FileChannel.open(segmentoActual,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void rotarSegmento() {
+        Path anterior = segmentoActual;
+        FileChannel canalAnterior = diario;
+        try {
+            abrirSegmento();
+        } catch (IOException e) {
+            // Se sigue escribiendo en el mismo segmento; se borrará en una rotación posterior
+            logger.warn("[EVALUACION] No se pudo abrir un segmento de diario nuevo", e);
+            return;
+        }
+        try {
+            canalAnterior.close();
+        } catch (IOException e) {
+            logger.warn("[EVALUACION] No se pudo cerrar el segmento de diario {}", anterior, e);
+        }
+        segmentosCerrados.add(anterior);
+    }
+
+    /**
+     * Estadísticas de la ingesta: evaluaciones aceptadas, rechazadas por buffer
+     * lleno, guardadas, descartadas por datos inválidos y ocupación del buffer.
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("activa", activa);
+        estadisticas.put("capacidad", capacidad);
+        estadisticas.put("enBuffer", cola != null ? cola.size() : 0);
+        estadisticas.put("aceptadas", aceptadas.get());
+        estadisticas.put("rechazadas", rechazadas.get());
+        estadisticas.put("insertadas", insertadas.get());
+        estadisticas.put("descartadas", descartadas.get());
+        estadisticas.put("recuperadas", recuperadas.get());
+        estadisticas.put("lotes", lotes.get());
+        return estadisticas;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class EvaluacionPendiente {
+        private String clave;
+        private Long docenteId;
+        private Integer puntuacion;
+        private String comentario;
+        private LocalDate fecha;
+    }
+}
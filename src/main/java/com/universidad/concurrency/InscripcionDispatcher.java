@@ -0,0 +1,378 @@
+package com.universidad.concurrency;
+
+import com.universidad.dto.InscripcionDTO;
+import com.universidad.exception.BusinessException;
+import com.universidad.exception.ServicioSaturadoException;
+import com.universidad.model.Inscripcion;
+import com.universidad.service.IInscripcionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Despachador de inscripciones que reparte las solicitudes de
+ * {@link IInscripcionService#crearInscripcion(Long, Long)} en carriles de un
+ * único escritor según el ID de la materia.
+ *
+ * Todas las solicitudes de una misma materia se procesan en orden dentro del
+ * mismo carril, por lo que ya no compiten por la fila de la materia. Cada
+ * carril toma de su cola un lote pequeño de solicitudes y las persiste en una
+ * sola transacción.
+ *
+ * Una inscripción la toma el carril o la abandona quien espera al vencer el
+ * timeout, nunca los dos: si el cliente ya recibió el rechazo por timeout, la
+ * inscripción no se crea; si el carril ya la tomó, se espera su resultado.
+ */
+@Component
+public class InscripcionDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InscripcionDispatcher.class);
+
+    // Cantidad de latencias recientes usadas para estimar percentiles
+    private static final int MUESTRAS_LATENCIA = 4096;
+
+    @Autowired
+    private IInscripcionService inscripcionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.inscripciones.dispatcher.carriles:8}")
+    private int cantidadCarriles;
+
+    @Value("${app.inscripciones.dispatcher.lote-maximo:16}")
+    private int loteMaximo;
+
+    @Value("${app.inscripciones.dispatcher.capacidad-cola:1000}")
+    private int capacidadCola;
+
+    @Value("${app.inscripciones.dispatcher.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private TransactionTemplate transactionTemplate;
+    private Carril[] carriles;
+
+    private final AtomicLong procesadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong vencidas = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final long[] latenciasNanos = new long[MUESTRAS_LATENCIA];
+    private final AtomicLong indiceLatencia = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        carriles = new Carril[cantidadCarriles];
+        for (int i = 0; i < cantidadCarriles; i++) {
+            carriles[i] = new Carril(i);
+            Thread hilo = new Thread(carriles[i], "inscripcion-carril-" + i);
+            hilo.setDaemon(true);
+            carriles[i].hilo = hilo;
+            hilo.start();
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        for (Carril carril : carriles) {
+            carril.hilo.interrupt();
+        }
+    }
+
+    /**
+     * Encola la inscripción en el carril de la materia y espera su resultado.
+     *
+     * @throws BusinessException si alguna regla de negocio rechaza la inscripción
+     * @throws ServicioSaturadoException si el carril está lleno o no responde a tiempo
+     */
+    public InscripcionDTO inscribir(Long estudianteId, Long materiaId) {
+        Solicitud solicitud = new Solicitud(estudianteId, materiaId, null, System.nanoTime());
+        encolar(materiaId, solicitud);
+        try {
+            return esperar(solicitud.resultado, "La inscripción no se procesó a tiempo");
+        } catch (ServicioSaturadoException e) {
+            if (solicitud.tomada.compareAndSet(false, true)) {
+                // El carril ya no la va a procesar
+                vencidas.incrementAndGet();
+                throw e;
+            }
+            // El carril ya la está persistiendo: se espera el resultado real
+            return esperarSinLimite(solicitud.resultado);
+        }
+    }
+
+    /**
+     * Ejecuta la consulta en el carril de la materia, serializada con las
+     * inscripciones de esa materia, y espera su resultado.
+     *
+     * @throws ServicioSaturadoException si el carril está lleno o no responde a tiempo
+     */
+    public <T> T consultarEnCarril(Long materiaId, Supplier<T> consulta) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        ejecutarEnCarril(materiaId, () -> {
+            try {
+                resultado.complete(consulta.get());
+            } catch (RuntimeException e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        return esperar(resultado, "La operación no se procesó a tiempo");
+    }
+
+    private <T> T esperar(CompletableFuture<T> resultado, String mensajeTimeout) {
+        try {
+            return resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new BusinessException("No se pudo procesar la inscripción", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServicioSaturadoException(mensajeTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException("Procesamiento de inscripción interrumpido", e);
+        }
+    }
+
+    private <T> T esperarSinLimite(CompletableFuture<T> resultado) {
+        try {
+            return resultado.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new BusinessException("No se pudo procesar la inscripción", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException("Procesamiento de inscripción interrumpido", e);
+        }
+    }
+
+    /**
+     * Ejecuta una tarea en el carril de la materia, serializada con las
+     * inscripciones de esa misma materia y fuera de su transacción. No espera
+     * el resultado.
+     *
+     * @throws ServicioSaturadoException si el carril está lleno
+     */
+    public void ejecutarEnCarril(Long materiaId, Runnable tarea) {
+        encolar(materiaId, new Solicitud(null, materiaId, tarea, System.nanoTime()));
+    }
+
+    private void encolar(Long materiaId, Solicitud solicitud) {
+        Carril carril = carriles[Math.floorMod(materiaId.hashCode(), carriles.length)];
+        if (!carril.cola.offer(solicitud)) {
+            rechazadas.incrementAndGet();
+            throw new ServicioSaturadoException("La cola de inscripciones de la materia está llena");
+        }
+    }
+
+    /**
+     * Separa las tareas de las inscripciones del lote: las inscripciones se
+     * persisten juntas y las tareas se ejecutan después, cada una por su cuenta.
+     * Un carril atiende varias materias, así que las inscripciones se ordenan
+     * por ID de materia (el orden estable respeta la llegada dentro de cada
+     * una): el lote ocupa los cupos en el mismo orden ascendente que el carrito
+     * y los dos no pueden interbloquearse.
+     */
+    private void procesar(List<Solicitud> lote) {
+        List<Solicitud> inscripciones = new ArrayList<>(lote.size());
+        List<Solicitud> tareas = new ArrayList<>();
+        long ahora = System.nanoTime();
+        for (Solicitud solicitud : lote) {
+            if (solicitud.tarea != null) {
+                tareas.add(solicitud);
+            } else if (tomar(solicitud, ahora)) {
+                inscripciones.add(solicitud);
+            }
+        }
+        if (!inscripciones.isEmpty()) {
+            inscripciones.sort(Comparator.comparing(solicitud -> solicitud.materiaId));
+            procesarLote(inscripciones);
+        }
+        for (Solicitud solicitud : tareas) {
+            try {
+                solicitud.tarea.run();
+            } catch (RuntimeException e) {
+                logger.error("[INSCRIPCION] Error ejecutando tarea en el carril de la materia {}",
+                        solicitud.materiaId, e);
+            }
+        }
+    }
+
+    /**
+     * Procesa el lote en una sola transacción. Las solicitudes rechazadas por
+     * reglas de negocio se completan de inmediato; el resto se confirma al
+     * terminar la transacción. Si la transacción falla, las solicitudes
+     * pendientes se reintentan cada una en su propia transacción. Es lo que pasa
+     * cuando el índice único rechaza una inscripción duplicada: esa solicitud
+     * ya se completó con el rechazo y el resto se reintenta.
+     */
+    private void procesarLote(List<Solicitud> lote) {
+        lotes.incrementAndGet();
+        Map<Solicitud, InscripcionDTO> aceptadas = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Solicitud solicitud : lote) {
+                    try {
+                        Inscripcion inscripcion = inscripcionService.crearInscripcion(
+                                solicitud.estudianteId, solicitud.materiaId);
+                        aceptadas.put(solicitud, inscripcionService.mapToDTO(inscripcion));
+                    } catch (BusinessException e) {
+                        completar(solicitud, null, e);
+                    }
+                }
+            });
+            aceptadas.forEach((solicitud, dto) -> completar(solicitud, dto, null));
+        } catch (RuntimeException e) {
+            logger.warn("[INSCRIPCION] Falló el lote de {} inscripciones, se reintentan individualmente",
+                    lote.size(), e);
+            for (Solicitud solicitud : lote) {
+                if (solicitud.resultado.isDone()) {
+                    continue;
+                }
+                try {
+                    Inscripcion inscripcion = inscripcionService.crearInscripcion(
+                            solicitud.estudianteId, solicitud.materiaId);
+                    completar(solicitud, inscripcionService.mapToDTO(inscripcion), null);
+                } catch (RuntimeException individual) {
+                    completar(solicitud, null, individual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reclama la inscripción para el carril. Si quien espera ya la abandonó se
+     * descarta; si venció pero todavía nadie la abandonó, se rechaza sin
+     * crearla (quien espera recibe ese rechazo).
+     */
+    private boolean tomar(Solicitud solicitud, long ahora) {
+        if (!solicitud.tomada.compareAndSet(false, true)) {
+            return false;
+        }
+        if (ahora - solicitud.encoladaNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+            vencidas.incrementAndGet();
+            completar(solicitud, null, new ServicioSaturadoException("La inscripción no se procesó a tiempo"));
+            return false;
+        }
+        return true;
+    }
+
+    private void completar(Solicitud solicitud, InscripcionDTO dto, RuntimeException error) {
+        procesadas.incrementAndGet();
+        long latencia = System.nanoTime() - solicitud.encoladaNanos;
+        latenciasNanos[Math.floorMod(indiceLatencia.getAndIncrement(), MUESTRAS_LATENCIA)] = latencia;
+        if (error != null) {
+            solicitud.resultado.completeExceptionally(error);
+        } else {
+            solicitud.resultado.complete(dto);
+        }
+    }
+
+    /**
+     * Estadísticas del despachador: solicitudes procesadas y rechazadas,
+     * profundidad de las colas y percentiles de latencia (encolado a respuesta)
+     * sobre las últimas muestras.
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        int total = (int) Math.min(indiceLatencia.get(), MUESTRAS_LATENCIA);
+        long[] muestras = Arrays.copyOf(latenciasNanos, total);
+        Arrays.sort(muestras);
+
+        int[] profundidades = new int[carriles.length];
+        for (int i = 0; i < carriles.length; i++) {
+            profundidades[i] = carriles[i].cola.size();
+        }
+
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("carriles", carriles.length);
+        estadisticas.put("procesadas", procesadas.get());
+        estadisticas.put("rechazadas", rechazadas.get());
+        estadisticas.put("vencidas", vencidas.get());
+        estadisticas.put("lotes", lotes.get());
+        estadisticas.put("profundidadColas", profundidades);
+        estadisticas.put("latenciaP50Ms", percentilMs(muestras, 0.50));
+        estadisticas.put("latenciaP99Ms", percentilMs(muestras, 0.99));
+        return estadisticas;
+    }
+
+    private static double percentilMs(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+
+    private final class Carril implements Runnable {
+        private final int numero;
+        private final BlockingQueue<Solicitud> cola = new ArrayBlockingQueue<>(capacidadCola);
+        private Thread hilo;
+
+        private Carril(int numero) {
+            this.numero = numero;
+        }
+
+        @Override
+        public void run() {
+            List<Solicitud> lote = new ArrayList<>(loteMaximo);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    lote.add(cola.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                cola.drainTo(lote, loteMaximo - 1);
+                try {
+                    procesar(lote);
+                } catch (RuntimeException e) {
+                    logger.error("[INSCRIPCION] Error inesperado en el carril {}", numero, e);
+                    lote.forEach(s -> s.resultado.completeExceptionally(e));
+                }
+                lote.clear();
+            }
+        }
+    }
+
+    private static final class Solicitud {
+        private final Long estudianteId;
+        private final Long materiaId;
+        private final Runnable tarea;
+        private final long encoladaNanos;
+        private final CompletableFuture<InscripcionDTO> resultado = new CompletableFuture<>();
+        // La marca el carril al procesarla o quien espera al abandonarla
+        private final AtomicBoolean tomada = new AtomicBoolean();
+
+        private Solicitud(Long estudianteId, Long materiaId, Runnable tarea, long encoladaNanos) {
+            this.estudianteId = estudianteId;
+            this.materiaId = materiaId;
+            this.tarea = tarea;
+            this.encoladaNanos = encoladaNanos;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.universidad.concurrency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Almacén de idempotencia en Redis, compartido entre instancias. La
+ * expiración la maneja Redis con el TTL de cada clave.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotencia.almacen", havingValue = "redis")
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String PREFIJO = "universidad_idempotencia:";
+    private static final String EN_PROCESO = "EN_PROCESO";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            @Value("${app.idempotencia.ttl-minutos:60}") long ttlMinutos) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMinutes(ttlMinutos);
+    }
+
+    @Override
+    public StoredResponse obtener(String clave) {
+        String valor = redisTemplate.opsForValue().get(PREFIJO + clave);
+        if (valor == null || EN_PROCESO.equals(valor)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(valor, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta idempotente corrupta para la clave " + clave, e);
+        }
+    }
+
+    @Override
+    public boolean reservar(String clave) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(PREFIJO + clave, EN_PROCESO, ttl));
+    }
+
+    @Override
+    public void guardar(String clave, StoredResponse respuesta) {
+        try {
+            redisTemplate.opsForValue().set(PREFIJO + clave, objectMapper.writeValueAsString(respuesta), ttl);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta idempotente", e);
+        }
+    }
+
+    @Override
+    public void liberar(String clave) {
+        redisTemplate.delete(PREFIJO + clave);
+    }
+}
@@ -0,0 +1,172 @@
+package com.universidad.concurrency;
+
+import com.universidad.dto.ReservaCupoDTO;
+import com.universidad.event.InscripcionEstadoCambiadoEvent;
+import com.universidad.event.ReservaCupoLiberadaEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reservas temporales de cupo por materia, mantenidas en memoria y fuera de la
+ * fila de la materia. Una reserva descuenta un cupo para los demás estudiantes
+ * hasta que se confirma la inscripción o vence; los vencimientos los ejecuta
+ * una {@link TimerWheel} en lugar de un barrido periódico de la base.
+ *
+ * Este componente solo guarda el estado: la verificación de cupo antes de
+ * reservar se hace en el carril de la materia (ver ReservaCupoServiceImpl).
+ */
+@Component
+public class ReservasCupo {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservasCupo.class);
+
+    @Value("${app.inscripciones.reservas.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${app.inscripciones.reservas.ranuras:512}")
+    private int ranuras;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private TimerWheel timerWheel;
+
+    // materiaId -> (estudianteId -> reserva)
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, Reserva>> reservas = new ConcurrentHashMap<>();
+
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong confirmadas = new AtomicLong();
+    private final AtomicLong vencidas = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        timerWheel = new TimerWheel("reservas-cupo-timer", tickMs, ranuras);
+    }
+
+    @PreDestroy
+    void detener() {
+        timerWheel.detener();
+    }
+
+    /**
+     * Registra la reserva y programa su vencimiento. Si el estudiante ya tenía
+     * una reserva en la materia se devuelve la existente sin extenderla.
+     */
+    public ReservaCupoDTO reservar(Long estudianteId, Long materiaId, long duracionMs) {
+        ConcurrentHashMap<Long, Reserva> porEstudiante = reservas.computeIfAbsent(materiaId, id -> new ConcurrentHashMap<>());
+        Reserva nueva = new Reserva(estudianteId, materiaId, LocalDateTime.now().plusNanos(duracionMs * 1_000_000L));
+        Reserva existente = porEstudiante.putIfAbsent(estudianteId, nueva);
+        if (existente != null) {
+            return existente.toDTO();
+        }
+        nueva.vencimiento = timerWheel.programar(duracionMs, () -> vencer(nueva));
+        creadas.incrementAndGet();
+        return nueva.toDTO();
+    }
+
+    public ReservaCupoDTO obtener(Long estudianteId, Long materiaId) {
+        Map<Long, Reserva> porEstudiante = reservas.get(materiaId);
+        Reserva reserva = porEstudiante != null ? porEstudiante.get(estudianteId) : null;
+        return reserva != null ? reserva.toDTO() : null;
+    }
+
+    /**
+     * Libera la reserva del estudiante en la materia.
+     * @return true si existía
+     */
+    public boolean liberar(Long estudianteId, Long materiaId) {
+        Map<Long, Reserva> porEstudiante = reservas.get(materiaId);
+        Reserva reserva = porEstudiante != null ? porEstudiante.remove(estudianteId) : null;
+        if (reserva == null) {
+            return false;
+        }
+        // Si todavía no tenía vencimiento programado, al vencer no encontrará la reserva
+        TimerWheel.Tarea vencimiento = reserva.vencimiento;
+        if (vencimiento != null) {
+            vencimiento.cancelar();
+        }
+        return true;
+    }
+
+    /**
+     * Cupos retenidos por reservas de otros estudiantes; el propio estudiante
+     * puede usar el cupo que tiene reservado.
+     */
+    public int reservadasPorOtros(Long materiaId, Long estudianteId) {
+        Map<Long, Reserva> porEstudiante = reservas.get(materiaId);
+        if (porEstudiante == null) {
+            return 0;
+        }
+        int total = porEstudiante.size();
+        return porEstudiante.containsKey(estudianteId) ? total - 1 : total;
+    }
+
+    public int reservadas(Long materiaId) {
+        Map<Long, Reserva> porEstudiante = reservas.get(materiaId);
+        return porEstudiante != null ? porEstudiante.size() : 0;
+    }
+
+    /**
+     * Al confirmarse la inscripción el cupo pasa al contador de la materia y
+     * la reserva deja de descontarse.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInscripcionEstadoCambiado(InscripcionEstadoCambiadoEvent event) {
+        if (event.getEstadoAnterior() == null && liberar(event.getEstudianteId(), event.getMateriaId())) {
+            confirmadas.incrementAndGet();
+        }
+    }
+
+    private void vencer(Reserva reserva) {
+        Map<Long, Reserva> porEstudiante = reservas.get(reserva.materiaId);
+        if (porEstudiante != null && porEstudiante.remove(reserva.estudianteId, reserva)) {
+            vencidas.incrementAndGet();
+            logger.debug("[RESERVA] Venció la reserva del estudiante {} en la materia {}",
+                    reserva.estudianteId, reserva.materiaId);
+            eventPublisher.publishEvent(new ReservaCupoLiberadaEvent(reserva.estudianteId, reserva.materiaId));
+        }
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        int activas = 0;
+        for (Map<Long, Reserva> porEstudiante : reservas.values()) {
+            activas += porEstudiante.size();
+        }
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("activas", activas);
+        estadisticas.put("creadas", creadas.get());
+        estadisticas.put("confirmadas", confirmadas.get());
+        estadisticas.put("vencidas", vencidas.get());
+        return estadisticas;
+    }
+
+    private static final class Reserva {
+        private final Long estudianteId;
+        private final Long materiaId;
+        private final LocalDateTime expiraEn;
+        private volatile TimerWheel.Tarea vencimiento;
+
+        private Reserva(Long estudianteId, Long materiaId, LocalDateTime expiraEn) {
+            this.estudianteId = estudianteId;
+            this.materiaId = materiaId;
+            this.expiraEn = expiraEn;
+        }
+
+        private ReservaCupoDTO toDTO() {
+            return new ReservaCupoDTO(estudianteId, materiaId, expiraEn);
+        }
+    }
+}
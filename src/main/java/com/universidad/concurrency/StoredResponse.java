@@ -0,0 +1,20 @@
+package com.universidad.concurrency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Respuesta HTTP guardada para una clave de idempotencia: el código de estado
+ * y el cuerpo ya serializado en JSON, listo para repetirse tal cual.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredResponse implements Serializable {
+
+    private int status;
+    private String body;
+}
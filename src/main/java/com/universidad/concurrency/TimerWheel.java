@@ -0,0 +1,123 @@
+package com.universidad.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rueda de temporizadores (hashed timer wheel) para vencimientos masivos con
+ * poca precisión: programar y cancelar cuestan O(1) y un solo hilo avanza la
+ * rueda una ranura por tick, ejecutando las tareas vencidas de esa ranura.
+ *
+ * Las tareas nuevas pasan por una cola intermedia y es el hilo de la rueda el
+ * que las ubica en su ranura, así las ranuras solo las toca ese hilo.
+ */
+public class TimerWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final long tickNanos;
+    private final Queue<Tarea>[] ranuras;
+    private final Queue<Tarea> pendientes = new ConcurrentLinkedQueue<>();
+    private final long inicioNanos = System.nanoTime();
+    private final Thread hilo;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(String nombre, long tickMs, int cantidadRanuras) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.ranuras = new Queue[cantidadRanuras];
+        for (int i = 0; i < cantidadRanuras; i++) {
+            ranuras[i] = new ArrayDeque<>();
+        }
+        this.hilo = new Thread(this::avanzar, nombre);
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Programa la acción para ejecutarse en el hilo de la rueda pasado el
+     * retraso, redondeado hacia arriba al siguiente tick.
+     */
+    public Tarea programar(long retrasoMs, Runnable accion) {
+        long vence = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retrasoMs) - inicioNanos;
+        Tarea tarea = new Tarea(accion, (vence + tickNanos - 1) / tickNanos);
+        pendientes.add(tarea);
+        return tarea;
+    }
+
+    public void detener() {
+        hilo.interrupt();
+    }
+
+    private void avanzar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long espera = (tick + 1) * tickNanos - (System.nanoTime() - inicioNanos);
+            if (espera > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(espera);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            tick++;
+            ubicarPendientes();
+            ejecutarVencidas(ranuras[(int) (tick % ranuras.length)]);
+        }
+    }
+
+    private void ubicarPendientes() {
+        Tarea tarea;
+        while ((tarea = pendientes.poll()) != null) {
+            if (tarea.cancelada) {
+                continue;
+            }
+            // Una tarea que ya venció mientras esperaba se ejecuta en este tick
+            tarea.tickVencimiento = Math.max(tarea.tickVencimiento, tick);
+            ranuras[(int) (tarea.tickVencimiento % ranuras.length)].add(tarea);
+        }
+    }
+
+    private void ejecutarVencidas(Queue<Tarea> ranura) {
+        Iterator<Tarea> it = ranura.iterator();
+        while (it.hasNext()) {
+            Tarea tarea = it.next();
+            if (tarea.cancelada) {
+                it.remove();
+            } else if (tarea.tickVencimiento <= tick) {
+                it.remove();
+                try {
+                    tarea.accion.run();
+                } catch (RuntimeException e) {
+                    logger.error("[TIMER] Error ejecutando tarea vencida", e);
+                }
+            }
+            // Las demás pertenecen a una vuelta posterior de la rueda
+        }
+    }
+
+    /**
+     * Tarea programada; cancelarla evita que se ejecute y la rueda la descarta
+     * al pasar por su ranura.
+     */
+    public static final class Tarea {
+        private final Runnable accion;
+        private long tickVencimiento;
+        private volatile boolean cancelada;
+
+        private Tarea(Runnable accion, long tickVencimiento) {
+            this.accion = accion;
+            this.tickVencimiento = tickVencimiento;
+        }
+
+        public void cancelar() {
+            cancelada = true;
+        }
+    }
+}
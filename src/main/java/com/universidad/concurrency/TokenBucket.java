@@ -0,0 +1,36 @@
+package com.universidad.concurrency;
+
+/**
+ * Token bucket para limitar la tasa de admisión: se reponen {@code tasaPorSegundo}
+ * fichas por segundo hasta un máximo de {@code capacidad}, que define la ráfaga
+ * admitida. La reposición se calcula al consumir, sin hilos propios.
+ */
+public class TokenBucket {
+
+    private final double capacidad;
+    private final double fichasPorNano;
+    private double fichas;
+    private long ultimaReposicion;
+
+    public TokenBucket(double tasaPorSegundo, int capacidad) {
+        this.capacidad = capacidad;
+        this.fichasPorNano = tasaPorSegundo / 1_000_000_000.0;
+        this.fichas = capacidad;
+        this.ultimaReposicion = System.nanoTime();
+    }
+
+    /**
+     * Intenta consumir una ficha.
+     * @return 0 si se consumió, o los nanosegundos que faltan para que haya una disponible
+     */
+    public synchronized long intentarConsumir() {
+        long ahora = System.nanoTime();
+        fichas = Math.min(capacidad, fichas + (ahora - ultimaReposicion) * fichasPorNano);
+        ultimaReposicion = ahora;
+        if (fichas >= 1) {
+            fichas -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - fichas) / fichasPorNano);
+    }
+}
@@ -0,0 +1,128 @@
+package com.universidad.concurrency;
+
+import com.universidad.exception.ServicioSaturadoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifica las credenciales de login (BCrypt) en un pool propio y acotado, fuera
+ * de los hilos de Tomcat. Con la cola llena el login se rechaza enseguida con
+ * {@link ServicioSaturadoException} (503) en vez de esperar, así una ola de
+ * logins no deja sin hilos a las inscripciones.
+ *
+ * Un pedido que esperó en la cola más que el timeout ya no se verifica: el
+ * cliente probablemente desistió y BCrypt es justamente lo caro.
+ */
+@Component
+public class VerificacionLogin {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificacionLogin.class);
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    // 0 = la mitad de los procesadores, para dejar CPU al resto de la aplicación
+    @Value("${app.auth.login.hilos:0}")
+    private int hilos;
+
+    @Value("${app.auth.login.capacidad-cola:200}")
+    private int capacidadCola;
+
+    @Value("${app.auth.login.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor pool;
+
+    private final AtomicLong aceptados = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final AtomicLong credencialesInvalidas = new AtomicLong();
+    private final AtomicLong vencidos = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        int cantidad = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numero = new AtomicInteger();
+        pool = new ThreadPoolExecutor(cantidad, cantidad, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "login-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void detener() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Encola la verificación y devuelve enseguida. El resultado falla con la
+     * {@link AuthenticationException} si las credenciales no son válidas, o con
+     * {@link ServicioSaturadoException} si no se verificó a tiempo.
+     *
+     * @throws ServicioSaturadoException si la cola de logins está llena
+     */
+    public CompletableFuture<Authentication> autenticar(String username, String password) {
+        long encolado = System.nanoTime();
+        CompletableFuture<Authentication> resultado;
+        try {
+            resultado = CompletableFuture.supplyAsync(() -> {
+                if (System.nanoTime() - encolado > TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+                    throw new ServicioSaturadoException("El inicio de sesión esperó demasiado, reintente");
+                }
+                return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rechazados.incrementAndGet();
+            logger.warn("[AUTH] Cola de logins llena ({}), se rechaza el login de {}", capacidadCola, username);
+            throw new ServicioSaturadoException("Hay demasiados inicios de sesión en curso, reintente en unos segundos");
+        }
+        aceptados.incrementAndGet();
+        return resultado.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).handle((autenticacion, error) -> {
+            if (error == null) {
+                return autenticacion;
+            }
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (causa instanceof TimeoutException || causa instanceof ServicioSaturadoException) {
+                vencidos.incrementAndGet();
+                throw new ServicioSaturadoException("El inicio de sesión tardó demasiado, reintente", causa);
+            }
+            if (causa instanceof AuthenticationException) {
+                credencialesInvalidas.incrementAndGet();
+            }
+            throw causa instanceof RuntimeException runtime ? runtime : new CompletionException(causa);
+        });
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("loginsAceptados", aceptados.get());
+        estadisticas.put("loginsRechazados", rechazados.get());
+        estadisticas.put("credencialesInvalidas", credencialesInvalidas.get());
+        estadisticas.put("loginsVencidos", vencidos.get());
+        estadisticas.put("loginsEnCola", pool.getQueue().size());
+        estadisticas.put("loginsEnCurso", pool.getActiveCount());
+        return estadisticas;
+    }
+}
@@ -0,0 +1,41 @@
+package com.universidad.config;
+
+import com.universidad.concurrency.AdmisionInscripciones;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+@Component
+// Aplica el control de admisión a los carritos y las reservas antes de que
+// lleguen al controlador (la inscripción individual lo aplica dentro de
+// IdempotencyManager). El rechazo se lanza como excepción para que
+// GlobalExceptionHandler responda 429 con Retry-After.
+public class AdmisionInscripcionesInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private AdmisionInscripciones admisionInscripciones;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String estudianteId = variables != null ? variables.get("estudianteId") : null;
+        if (estudianteId != null) {
+            try {
+                admisionInscripciones.admitir(Long.valueOf(estudianteId));
+            } catch (NumberFormatException e) {
+                // El controlador responde el error de tipo del parámetro
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package com.universidad.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ventanas de inscripción prioritarias. Cada estudiante cae en la primera
+ * ventana cuyos criterios cumple; si no cumple ninguna, cae en la ventana de
+ * apertura más tardía. Sin ventanas configuradas el control queda desactivado.
+ *
+ * <pre>
+ * app.inscripciones.admision.ventanas[0].nombre=avanzados
+ * app.inscripciones.admision.ventanas[0].creditos-minimos=120
+ * app.inscripciones.admision.ventanas[0].apertura=2026-02-01T08:00:00
+ * app.inscripciones.admision.ventanas[0].tasa-por-segundo=50
+ * app.inscripciones.admision.ventanas[0].rafaga=100
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.inscripciones.admision")
+public class AdmisionInscripcionesProperties {
+
+    private List<Ventana> ventanas = new ArrayList<>();
+
+    /**
+     * Máximo de estudiantes con ventana resuelta en memoria.
+     */
+    private int maxEstudiantes = 100000;
+
+    @Data
+    public static class Ventana {
+
+        private String nombre;
+
+        /**
+         * Créditos aprobados necesarios para entrar en la ventana; null no filtra.
+         */
+        private Integer creditosMinimos;
+
+        /**
+         * Último año de alta (cohorte) admitido en la ventana; null no filtra.
+         */
+        private Integer cohorteMaxima;
+
+        /**
+         * Momento desde el que se aceptan inscripciones de la ventana.
+         */
+        private LocalDateTime apertura;
+
+        /**
+         * Inscripciones admitidas por segundo una vez abierta la ventana, en
+         * cada nodo: con N instancias la tasa efectiva es N veces este valor.
+         */
+        private double tasaPorSegundo = 50;
+
+        /**
+         * Solicitudes que se admiten de golpe antes de aplicar la tasa, también
+         * por nodo.
+         */
+        private int rafaga = 100;
+    }
+}
@@ -0,0 +1,183 @@
+package com.universidad.config;
+
+import com.universidad.repository.EstudianteRepository;
+import com.universidad.repository.MateriaRepository;
+import com.universidad.service.IEstudianteService;
+import com.universidad.service.IMateriaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Order(2)
+// Precarga las cachés calientes llamando a los métodos @Cacheable de los
+// servicios, con concurrencia acotada. Corre como CommandLineRunner, igual que
+// DatabaseInitializer: Spring Boot no marca la aplicación como lista para
+// recibir tráfico hasta que terminan los runners (ver /api/public/estado).
+// También vuelve a calentar antes de que abra cada ventana de inscripción.
+public class CacheWarmer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    @Autowired
+    private CacheWarmerProperties properties;
+
+    @Autowired
+    private AdmisionInscripcionesProperties admisionProperties;
+
+    @Autowired
+    private IMateriaService materiaService;
+
+    @Autowired
+    private IEstudianteService estudianteService;
+
+    @Autowired
+    private MateriaRepository materiaRepository;
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    // Ventanas (nombre y apertura) para las que ya se calentó
+    private final Set<String> ventanasCalentadas = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean calentado;
+    private volatile Map<String, Object> ultimoCalentamiento = Map.of();
+
+    @Override
+    public void run(String... args) {
+        if (!properties.isActivo()) {
+            calentado = true;
+            return;
+        }
+        try {
+            calentar("inicio");
+        } finally {
+            calentado = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.calentamiento.revision-ms:60000}")
+    public void calentarAntesDeVentanas() {
+        if (!properties.isActivo() || properties.getAnticipacionVentanaMinutos() <= 0) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        for (AdmisionInscripcionesProperties.Ventana ventana : admisionProperties.getVentanas()) {
+            LocalDateTime apertura = ventana.getApertura();
+            if (apertura == null || !ahora.isBefore(apertura)
+                    || ahora.isBefore(apertura.minusMinutes(properties.getAnticipacionVentanaMinutos()))) {
+                continue;
+            }
+            if (ventanasCalentadas.add(ventana.getNombre() + "@" + apertura)) {
+                calentar("ventana " + ventana.getNombre());
+            }
+        }
+    }
+
+    /**
+     * Carga las cachés configuradas. Las entradas que ya están en caché no se
+     * vuelven a consultar; los errores se cuentan y no cortan el calentamiento.
+     */
+    public synchronized Map<String, Object> calentar(String motivo) {
+        long inicio = System.currentTimeMillis();
+        logger.info("[CACHE] Inicio calentamiento ({}): {}", motivo, properties.getCaches());
+        AtomicInteger hilos = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrencia()), tarea -> {
+            Thread hilo = new Thread(tarea, "cache-calentamiento-" + hilos.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        AtomicInteger cargadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        boolean completo = true;
+        try {
+            List<CompletableFuture<Void>> cargas = new ArrayList<>();
+            for (String cache : properties.getCaches()) {
+                for (Runnable carga : cargasDe(cache)) {
+                    cargas.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            carga.run();
+                            cargadas.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                            logger.debug("[CACHE] Error precargando {}", cache, e);
+                        }
+                    }, pool));
+                }
+            }
+            CompletableFuture.allOf(cargas.toArray(new CompletableFuture[0]))
+                    .get(properties.getTiempoMaximoSegundos(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            completo = false;
+            logger.warn("[CACHE] El calentamiento ({}) superó {} s, se abandona lo pendiente",
+                    motivo, properties.getTiempoMaximoSegundos());
+        } catch (InterruptedException e) {
+            completo = false;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            completo = false;
+            logger.warn("[CACHE] Error en el calentamiento ({})", motivo, e);
+        } finally {
+            pool.shutdownNow();
+        }
+        long fin = System.currentTimeMillis();
+        logger.info("[CACHE] Fin calentamiento ({}): {} entradas, {} errores (Duracion: {} ms)",
+                motivo, cargadas.get(), errores.get(), (fin - inicio));
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("motivo", motivo);
+        resultado.put("fin", LocalDateTime.now().toString());
+        resultado.put("completo", completo);
+        resultado.put("entradas", cargadas.get());
+        resultado.put("errores", errores.get());
+        resultado.put("duracionMs", fin - inicio);
+        ultimoCalentamiento = resultado;
+        return resultado;
+    }
+
+    private List<Runnable> cargasDe(String cache) {
+        int max = properties.getMaxEntradasPorCache();
+        List<Runnable> cargas = new ArrayList<>();
+        switch (cache) {
+            case "materias" -> cargas.add(materiaService::obtenerTodasLasMaterias);
+            case "estudiantes" -> cargas.add(estudianteService::obtenerTodosLosEstudiantes);
+            case "estudiantesActivos" -> cargas.add(estudianteService::obtenerEstudianteActivo);
+            case "materia" -> materiaRepository.findAllIds().stream().limit(max)
+                    .forEach(id -> cargas.add(() -> materiaService.obtenerMateriaPorId(id)));
+            case "estudiante" -> estudianteRepository.findNumerosInscripcionActivos(PageRequest.of(0, max))
+                    .forEach(numero -> cargas.add(() -> estudianteService.obtenerEstudiantePorNumeroInscripcion(numero)));
+            default -> logger.warn("[CACHE] La caché {} no se puede precargar", cache);
+        }
+        return cargas;
+    }
+
+    /**
+     * Si terminó el calentamiento inicial y el resultado del último.
+     */
+    public Map<String, Object> obtenerEstado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("calentado", calentado);
+        estado.put("ultimoCalentamiento", ultimoCalentamiento);
+        return estado;
+    }
+}
@@ -0,0 +1,51 @@
+package com.universidad.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precarga de cachés calientes al iniciar y antes de que abra una ventana de
+ * inscripción. Cachés soportadas: materias, materia (por id), estudiante (por
+ * número de inscripción, solo activos), estudiantes y estudiantesActivos.
+ *
+ * <pre>
+ * app.cache.calentamiento.caches=materias,materia,estudiante
+ * app.cache.calentamiento.concurrencia=4
+ * app.cache.calentamiento.anticipacion-ventana-minutos=15
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.calentamiento")
+public class CacheWarmerProperties {
+
+    private boolean activo = true;
+
+    private List<String> caches = new ArrayList<>(List.of("materias", "materia", "estudiante"));
+
+    /**
+     * Cargas en paralelo; acota las consultas simultáneas contra la base.
+     */
+    private int concurrencia = 4;
+
+    /**
+     * Máximo de entradas precargadas en las cachés por clave (materia, estudiante).
+     */
+    private int maxEntradasPorCache = 2000;
+
+    /**
+     * Tiempo máximo de un calentamiento; lo que no terminó se abandona y la
+     * aplicación queda lista igual.
+     */
+    private long tiempoMaximoSegundos = 120;
+
+    /**
+     * Minutos antes de la apertura de cada ventana de inscripción en que se
+     * vuelve a calentar; 0 lo desactiva.
+     */
+    private long anticipacionVentanaMinutos = 15;
+}
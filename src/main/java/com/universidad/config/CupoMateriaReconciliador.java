@@ -0,0 +1,59 @@
+package com.universidad.config;
+
+import com.universidad.repository.MateriaRepository;
+import com.universidad.service.IInscripcionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(1)
+// Tarea programada que reconstruye el contador de cupos ocupados de cada
+// materia a partir de las inscripciones ACTIVAS. Corrige cualquier desvío que
+// pudiera quedar por cambios hechos fuera de InscripcionServiceImpl.
+// También corre al iniciar, después de DatabaseInitializer y antes de
+// CacheWarmer, para que la aplicación no reciba tráfico con contadores desviados.
+public class CupoMateriaReconciliador implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CupoMateriaReconciliador.class);
+
+    @Autowired
+    private IInscripcionService inscripcionService;
+
+    @Autowired
+    private MateriaRepository materiaRepository;
+
+    @Override
+    public void run(String... args) {
+        try {
+            reconciliar();
+        } catch (DataAccessException e) {
+            // La tarea programada vuelve a intentarlo
+            logger.error("[CUPOS] No se pudo reconciliar al iniciar", e);
+        }
+    }
+
+    // Una transacción por materia: la fila queda bloqueada solo mientras se
+    // recalcula su contador
+    @Scheduled(cron = "${app.inscripciones.reconciliacion-cupos.cron:0 */15 * * * *}")
+    public void reconciliar() {
+        long inicio = System.currentTimeMillis();
+        int corregidas = 0;
+        for (Long materiaId : materiaRepository.findAllIds()) {
+            if (inscripcionService.reconciliarCupoOcupado(materiaId)) {
+                corregidas++;
+            }
+        }
+        long fin = System.currentTimeMillis();
+        if (corregidas > 0) {
+            logger.warn("[CUPOS] Reconciliación corrigió {} materias (Duracion: {} ms)", corregidas, (fin - inicio));
+        } else {
+            logger.debug("[CUPOS] Reconciliación sin cambios (Duracion: {} ms)", (fin - inicio));
+        }
+    }
+}
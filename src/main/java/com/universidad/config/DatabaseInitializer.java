@@ -7,6 +7,7 @@ import com.universidad.repository.RolRepository;
 import com.universidad.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +15,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Component
+@Order(0)
 // Esta clase se encarga de inicializar la base de datos con roles y un usuario
 // administrador por defecto
 // al iniciar la aplicación. Implementa CommandLineRunner para ejecutar código
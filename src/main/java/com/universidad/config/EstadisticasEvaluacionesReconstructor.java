@@ -0,0 +1,28 @@
+package com.universidad.config;
+
+import com.universidad.index.EstadisticasEvaluaciones;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+// Reconstruye las estadísticas de evaluaciones de docentes desde la tabla: al
+// iniciar, para cargar las evaluaciones existentes, y periódicamente para
+// corregir cualquier cambio hecho fuera de EvaluacionDocenteServiceImpl.
+public class EstadisticasEvaluacionesReconstructor {
+
+    @Autowired
+    private EstadisticasEvaluaciones estadisticasEvaluaciones;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        estadisticasEvaluaciones.reconstruir();
+    }
+
+    @Scheduled(cron = "${app.evaluaciones.estadisticas.reconstruccion-cron:0 0 3 * * *}")
+    public void reconstruir() {
+        estadisticasEvaluaciones.reconstruir();
+    }
+}
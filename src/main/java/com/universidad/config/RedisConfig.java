@@ -1,39 +1,96 @@
 package com.universidad.config;
 
+import com.universidad.cache.BinaryRedisSerializer;
+import com.universidad.cache.CacheL1Properties;
+import com.universidad.cache.CanalInvalidacion;
+import com.universidad.cache.EtiquetasCache;
+import com.universidad.cache.IndiceEtiquetas;
+import com.universidad.cache.RefrescoAnticipadoProperties;
+import com.universidad.cache.TwoLevelCacheManager;
+import com.universidad.dto.InscripcionDTO;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    // Tiempo de vida en Redis por caché; el resto usa el de por defecto
+    private static final Duration TTL_POR_DEFECTO = Duration.ofMinutes(60);
+    private static final Map<String, Duration> TTL_POR_CACHE = Map.of(
+            "inscripciones", Duration.ofMinutes(30),
+            "materias", Duration.ofMinutes(60),
+            "estudiantes", Duration.ofMinutes(45));
+
+    /**
+     * Cachés de Redis con una L1 local por nombre de caché delante; ver
+     * {@link TwoLevelCacheManager}. Las inscripciones se invalidan por
+     * estudiante y materia en vez de vaciar toda la caché. Las listas completas
+     * se refrescan antes de vencer según {@link RefrescoAnticipadoProperties}.
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+            CacheL1Properties cacheL1Properties, CanalInvalidacion canalInvalidacion,
+            IndiceEtiquetas indiceEtiquetas, BinaryRedisSerializer cacheSerializer,
+            RefrescoAnticipadoProperties refrescoAnticipadoProperties,
+            @Value("${app.cache.metricas.top-claves:20}") int topClaves) {
+        return new TwoLevelCacheManager(redisCacheManager(connectionFactory, cacheSerializer), cacheL1Properties,
+                canalInvalidacion, indiceEtiquetas, refrescoAnticipadoProperties, RedisConfig::ttl)
+                .registrarEtiquetas("inscripciones", RedisConfig::etiquetasInscripciones)
+                .instrumentar(topClaves, cacheSerializer::tamanoUltimoValor);
+    }
+
+    // Las claves siguen las de los @Cacheable de InscripcionServiceImpl
+    private static Collection<String> etiquetasInscripciones(Object key, Object value) {
+        if (value instanceof InscripcionDTO inscripcion) {
+            return List.of(EtiquetasCache.estudiante(inscripcion.getEstudianteId()),
+                    EtiquetasCache.materia(inscripcion.getMateriaId()));
+        }
+        String clave = String.valueOf(key);
+        if (clave.startsWith("estudiante_activas_")) {
+            return List.of(EtiquetasCache.estudiante(clave.substring("estudiante_activas_".length())));
+        }
+        if (clave.startsWith("estudiante_")) {
+            return List.of(EtiquetasCache.estudiante(clave.substring("estudiante_".length())));
+        }
+        if (clave.startsWith("materia_")) {
+            return List.of(EtiquetasCache.materia(clave.substring("materia_".length())));
+        }
+        return List.of();
+    }
+
+    private static Duration ttl(String cacheName) {
+        return TTL_POR_CACHE.getOrDefault(cacheName, TTL_POR_DEFECTO);
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+            BinaryRedisSerializer cacheSerializer) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(60)) // Tiempo de vida por defecto: 60 minutos
+                .entryTtl(TTL_POR_DEFECTO)
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                        .fromSerializer(cacheSerializer))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .withCacheConfiguration("inscripciones",
-                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(30)))
-                .withCacheConfiguration("materias",
-                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(60)))
-                .withCacheConfiguration("estudiantes",
-                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(45)))
-                .build();
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config);
+        // Se parte de la configuración común para conservar los serializadores
+        TTL_POR_CACHE.forEach((nombre, ttl) -> builder.withCacheConfiguration(nombre, config.entryTtl(ttl)));
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.universidad.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@DependsOn("entityManagerFactory")
+// Restricciones que Hibernate (ddl-auto=update) no sabe crear, como los índices
+// únicos parciales. Se crean al iniciar, después de que Hibernate actualizó el
+// esquema y antes de que la aplicación reciba tráfico.
+public class RestriccionesBaseDatos {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestriccionesBaseDatos.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void crear() {
+        // Una sola inscripción ACTIVA por estudiante y materia, aunque dos
+        // pedidos concurrentes pasen la validación previa al mismo tiempo
+        crearIndice("CREATE UNIQUE INDEX IF NOT EXISTS ux_inscripciones_activa "
+                + "ON inscripciones (estudiante_id, materia_id) WHERE estado = 'ACTIVA'");
+    }
+
+    private void crearIndice(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            // Por ejemplo, si ya hay duplicados: la aplicación sigue funcionando
+            // con las validaciones previas hasta que se corrijan los datos
+            logger.error("[ESQUEMA] No se pudo crear el índice: {}", sql, e);
+        }
+    }
+}
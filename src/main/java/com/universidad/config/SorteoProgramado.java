@@ -0,0 +1,33 @@
+package com.universidad.config;
+
+import com.universidad.exception.BusinessException;
+import com.universidad.service.ISorteoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+// Tarea programada que ejecuta el sorteo de cupos de cada materia cuya ventana
+// de solicitudes ya cerró. Cada materia se sortea en su propia transacción.
+public class SorteoProgramado {
+
+    private static final Logger logger = LoggerFactory.getLogger(SorteoProgramado.class);
+
+    @Autowired
+    private ISorteoService sorteoService;
+
+    @Scheduled(fixedDelayString = "${app.sorteo.intervalo-ms:60000}")
+    public void ejecutarSorteosVencidos() {
+        for (Long materiaId : sorteoService.obtenerMateriasConSorteoVencido()) {
+            try {
+                sorteoService.ejecutarSorteo(materiaId);
+            } catch (BusinessException e) {
+                logger.warn("[SORTEO] No se pudo sortear la materia {}: {}", materiaId, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("[SORTEO] Error sorteando la materia {}", materiaId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.universidad.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AdmisionInscripcionesInterceptor admisionInscripcionesInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Carritos y reservas; el sorteo no pasa por la admisión porque ya
+        // reparte la carga con su propia ventana. La inscripción individual la
+        // aplica el controlador después de buscar la respuesta idempotente
+        registry.addInterceptor(admisionInscripcionesInterceptor)
+                .addPathPatterns("/api/inscripciones/estudiante/**", "/api/inscripciones/reservas/**")
+                .excludePathPatterns("/api/inscripciones/estudiante/*/materia/*");
+    }
+}
@@ -0,0 +1,188 @@
+package com.universidad.controller;
+
+import com.universidad.cache.BinaryRedisSerializer;
+import com.universidad.cache.TwoLevelCacheManager;
+import com.universidad.concurrency.AdmisionInscripciones;
+import com.universidad.concurrency.IdempotencyManager;
+import com.universidad.concurrency.IngestaEvaluaciones;
+import com.universidad.concurrency.InscripcionDispatcher;
+import com.universidad.concurrency.ReservasCupo;
+import com.universidad.concurrency.VerificacionLogin;
+import com.universidad.dto.ResultadoSorteoDTO;
+import com.universidad.dto.SolicitudSorteoDTO;
+import com.universidad.exception.BusinessException;
+import com.universidad.security.CachePrincipales;
+import com.universidad.security.JwtTokenProvider;
+import com.universidad.service.ISorteoService;
+import com.universidad.service.IUsuarioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Administración", description = "Endpoints operativos para monitorear el sistema")
+public class AdminController {
+
+    @Autowired
+    private InscripcionDispatcher inscripcionDispatcher;
+
+    @Autowired
+    private IdempotencyManager idempotencyManager;
+
+    @Autowired
+    private ReservasCupo reservasCupo;
+
+    @Autowired
+    private ISorteoService sorteoService;
+
+    @Autowired
+    private AdmisionInscripciones admisionInscripciones;
+
+    @Autowired
+    private IngestaEvaluaciones ingestaEvaluaciones;
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @Autowired
+    private BinaryRedisSerializer cacheSerializer;
+
+    @Autowired
+    private IUsuarioService usuarioService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private CachePrincipales cachePrincipales;
+
+    @Autowired
+    private VerificacionLogin verificacionLogin;
+
+    @Operation(summary = "Estadísticas del despachador de inscripciones", description = "Solicitudes procesadas, rechazadas, profundidad de colas y latencias p50/p99")
+    @GetMapping("/inscripciones/dispatcher")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasDispatcher() {
+        return ResponseEntity.ok(inscripcionDispatcher.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Estadísticas de idempotencia de inscripciones", description = "Solicitudes con Idempotency-Key ejecutadas, repetidas desde el almacén y en conflicto")
+    @GetMapping("/inscripciones/idempotencia")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasIdempotencia() {
+        return ResponseEntity.ok(idempotencyManager.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Estadísticas de reservas de cupo", description = "Reservas activas, creadas, confirmadas y vencidas")
+    @GetMapping("/inscripciones/reservas")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasReservas() {
+        return ResponseEntity.ok(reservasCupo.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Pasar una materia a modo sorteo", description = "Las inscripciones directas se rechazan y las solicitudes se juntan hasta el cierre indicado; sin cierre, el sorteo se ejecuta solo manualmente")
+    @PutMapping("/materias/{materiaId}/sorteo")
+    public ResponseEntity<Void> configurarSorteo(@PathVariable Long materiaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cierre) {
+        try {
+            sorteoService.configurarSorteo(materiaId, cierre);
+            return ResponseEntity.noContent().build();
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Ejecutar el sorteo de una materia", description = "Asigna los cupos libres entre las solicitudes pendientes sin esperar el cierre")
+    @PostMapping("/materias/{materiaId}/sorteo/ejecutar")
+    public ResponseEntity<ResultadoSorteoDTO> ejecutarSorteo(@PathVariable Long materiaId) {
+        try {
+            return ResponseEntity.ok(sorteoService.ejecutarSorteo(materiaId));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Cambiar el peso de prioridad de una solicitud de sorteo")
+    @PutMapping("/sorteo/solicitudes/{solicitudId}/peso")
+    public ResponseEntity<SolicitudSorteoDTO> ajustarPesoSorteo(@PathVariable Long solicitudId, @RequestParam Double peso) {
+        try {
+            return ResponseEntity.ok(sorteoService.ajustarPeso(solicitudId, peso));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Estado de las ventanas de inscripción", description = "Por ventana: apertura, solicitudes admitidas y rechazadas por apertura o por tasa")
+    @GetMapping("/inscripciones/ventanas")
+    public ResponseEntity<List<Map<String, Object>>> obtenerEstadisticasVentanas() {
+        return ResponseEntity.ok(admisionInscripciones.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Estadísticas de la ingesta diferida de evaluaciones", description = "Evaluaciones aceptadas, rechazadas por buffer lleno, guardadas, descartadas y ocupación del buffer")
+    @GetMapping("/evaluaciones/ingesta")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasIngesta() {
+        return ResponseEntity.ok(ingestaEvaluaciones.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Estadísticas de la caché de dos niveles", description = "Por caché: aciertos en L1 local y en Redis, fallos, histogramas de latencia de carga y de tamaño de valores y ocupación de L1")
+    @GetMapping("/cache")
+    public ResponseEntity<List<Map<String, Object>>> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(cacheManager.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Claves calientes de la caché", description = "Claves más pedidas recientemente en todas las cachés (cache::clave), estimadas con un count-min sketch")
+    @GetMapping("/cache/claves-calientes")
+    public ResponseEntity<List<Map<String, Object>>> obtenerClavesCalientes() {
+        return ResponseEntity.ok(cacheManager.obtenerClavesCalientes());
+    }
+
+    @Operation(summary = "Estadísticas de serialización de la caché", description = "Valores en binario y en JSON, compresión, tiempos medios y comparación de tamaño contra JSON sobre una muestra")
+    @GetMapping("/cache/serializacion")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasSerializacion() {
+        return ResponseEntity.ok(cacheSerializer.obtenerEstadisticas());
+    }
+
+    @Operation(summary = "Estadísticas de autenticación", description = "Logins aceptados, rechazados por pool lleno y vencidos, tokens verificados, aciertos en la caché de tokens verificados, usuarios y estados de sesión cacheados")
+    @GetMapping("/auth")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasAuth() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>(tokenProvider.obtenerEstadisticas());
+        estadisticas.putAll(cachePrincipales.obtenerEstadisticas());
+        estadisticas.putAll(verificacionLogin.obtenerEstadisticas());
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    @Operation(summary = "Activar o desactivar un usuario", description = "Al desactivarlo se revocan sus tokens en todos los nodos")
+    @PutMapping("/usuarios/{username}/activo")
+    public ResponseEntity<?> cambiarEstadoUsuario(@PathVariable String username, @RequestParam boolean activo) {
+        try {
+            usuarioService.cambiarEstado(username, activo);
+            return ResponseEntity.noContent().build();
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Reemplazar los roles de un usuario", description = "Los tokens emitidos con los roles anteriores se revocan; el usuario debe volver a iniciar sesión")
+    @PutMapping("/usuarios/{username}/roles")
+    public ResponseEntity<?> asignarRolesUsuario(@PathVariable String username, @RequestBody List<String> roles) {
+        try {
+            usuarioService.asignarRoles(username, roles);
+            return ResponseEntity.noContent().build();
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
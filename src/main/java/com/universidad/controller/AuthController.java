@@ -1,46 +1,95 @@
 package com.universidad.controller;
 
+import com.universidad.concurrency.VerificacionLogin;
+import com.universidad.security.CachePrincipales;
 import com.universidad.security.JwtTokenProvider;
+import com.universidad.service.IUsuarioService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
+    private final VerificacionLogin verificacionLogin;
     private final JwtTokenProvider tokenProvider;
+    private final CachePrincipales cachePrincipales;
+    private final IUsuarioService usuarioService;
 
+    // BCrypt corre en el pool de VerificacionLogin; el hilo de Tomcat queda
+    // libre mientras tanto (respuesta asíncrona). Con el pool lleno: 503.
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        return verificacionLogin.autenticar(loginRequest.getUsername(), loginRequest.getPassword())
+                .<ResponseEntity<?>>thenApply(authentication -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("token", tokenProvider.generateToken(authentication));
+                    response.put("refreshToken", tokenProvider.generateRefreshToken(authentication));
+                    response.put("type", "Bearer");
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(error -> {
+                    Throwable causa = error.getCause() != null ? error.getCause() : error;
+                    if (causa instanceof AuthenticationException) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(Map.of("error", "Credenciales inválidas"));
+                    }
+                    throw error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+                });
+    }
+
+    // Nuevo token de acceso a partir del refresh token, sin BCrypt. Los roles
+    // se leen de la base en una sola consulta: un usuario desactivado no
+    // renueva y los roles del token nuevo son los actuales, no los del login
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest refreshRequest) {
+        String refreshToken = refreshRequest.getRefreshToken();
+        Claims claims = StringUtils.hasText(refreshToken) ? tokenProvider.verificarToken(refreshToken) : null;
+        if (claims == null || !JwtTokenProvider.esRefresh(claims) || cachePrincipales.estaRevocado(claims)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Refresh token inválido o revocado"));
+        }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
+        List<String> roles = usuarioService.obtenerRolesVigentes(claims.getSubject());
+        if (roles.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Usuario inactivo o sin roles"));
+        }
 
         Map<String, String> response = new HashMap<>();
-        response.put("token", jwt);
+        response.put("token", tokenProvider.renovarToken(claims, roles));
         response.put("type", "Bearer");
 
         return ResponseEntity.ok(response);
     }
 }
 
+class RefreshRequest {
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
+
 class LoginRequest {
     private String username;
     private String password;
@@ -1,5 +1,7 @@
 package com.universidad.controller;
 
+import com.universidad.index.EstadisticasEvaluaciones;
+import com.universidad.index.RankingDocentes;
 import com.universidad.model.Docente;
 import com.universidad.repository.DocenteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +18,12 @@ public class DocenteController {
     @Autowired
     private DocenteRepository docenteRepository;
 
+    @Autowired
+    private EstadisticasEvaluaciones estadisticasEvaluaciones;
+
+    @Autowired
+    private RankingDocentes rankingDocentes;
+
     @GetMapping
     public List<Docente> listarDocentes() {
         return docenteRepository.findAll();
@@ -39,7 +47,9 @@ public class DocenteController {
                     d.setNroEmpleado(docente.getNroEmpleado());
                     d.setDepartamento(docente.getDepartamento());
                     // Agrega aquí otros campos si es necesario
-                    return ResponseEntity.ok(docenteRepository.save(d));
+                    Docente actualizado = docenteRepository.save(d);
+                    rankingDocentes.cambiarDepartamento(id, actualizado.getDepartamento());
+                    return ResponseEntity.ok(actualizado);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -48,6 +58,7 @@ public class DocenteController {
     public ResponseEntity<Void> eliminarDocente(@PathVariable Long id) {
         if (docenteRepository.existsById(id)) {
             docenteRepository.deleteById(id);
+            estadisticasEvaluaciones.quitarDocente(id);
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
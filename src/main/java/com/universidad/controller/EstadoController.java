@@ -0,0 +1,39 @@
+package com.universidad.controller;
+
+import com.universidad.config.CacheWarmer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/public")
+@Tag(name = "Estado", description = "Estado de la instancia para el balanceador de carga")
+public class EstadoController {
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Operation(summary = "Estado de la instancia", description = "200 cuando la instancia está lista para recibir tráfico (calentamiento de cachés terminado); 503 mientras tanto")
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> obtenerEstado() {
+        // Spring Boot pasa a ACCEPTING_TRAFFIC recién cuando terminan los CommandLineRunner
+        boolean listo = applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("estado", listo ? "LISTO" : "INICIANDO");
+        estado.put("cache", cacheWarmer.obtenerEstado());
+        return ResponseEntity.status(listo ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(estado);
+    }
+}
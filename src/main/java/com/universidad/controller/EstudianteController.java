@@ -3,6 +3,9 @@ package com.universidad.controller; // Define el paquete al que pertenece esta c
 import com.universidad.dto.EstudianteDTO; // Importa la clase EstudianteDTO del paquete dto
 import com.universidad.model.Materia;
 import com.universidad.model.Estudiante;
+import com.universidad.dto.ResumenAcademicoDTO;
+import com.universidad.exception.BusinessException;
+import com.universidad.service.IResumenAcademicoService;
 import com.universidad.service.IEstudianteService; // Importa la interfaz IEstudianteService del paquete service
 
 import jakarta.transaction.Transactional;
@@ -24,11 +27,13 @@ import java.util.List; // Importa la interfaz List para manejar listas
 public class EstudianteController { // Define la clase EstudianteController
 
     private final IEstudianteService estudianteService; // Declara una variable final para el servicio de estudiantes
+    private final IResumenAcademicoService resumenAcademicoService;
     private static final Logger logger = LoggerFactory.getLogger(EstudianteController.class);
 
     @Autowired // Anotación que indica que el constructor debe ser usado para inyección de dependencias
-    public EstudianteController(IEstudianteService estudianteService) { // Constructor que recibe el servicio de estudiantes
+    public EstudianteController(IEstudianteService estudianteService, IResumenAcademicoService resumenAcademicoService) { // Constructor que recibe los servicios
         this.estudianteService = estudianteService; // Asigna el servicio de estudiantes a la variable de instancia
+        this.resumenAcademicoService = resumenAcademicoService;
     }
 
     @GetMapping // Anotación que indica que este método maneja solicitudes GET
@@ -59,6 +64,15 @@ public class EstudianteController { // Define la clase EstudianteController
         return ResponseEntity.ok(materias);
     }
 
+    @GetMapping("/{id}/resumen-academico") // Promedio ponderado, créditos aprobados y carga en curso del estudiante
+    public ResponseEntity<ResumenAcademicoDTO> obtenerResumenAcademico(@PathVariable("id") Long estudianteId) {
+        try {
+            return ResponseEntity.ok(resumenAcademicoService.obtenerResumen(estudianteId));
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/{id}/lock")
     public ResponseEntity<Estudiante> getEstudianteConBloqueo(
         @PathVariable Long id) {
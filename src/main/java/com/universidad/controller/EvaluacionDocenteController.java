@@ -1,5 +1,8 @@
 package com.universidad.controller;
 
+import com.universidad.dto.EstadisticasDocenteDTO;
+import com.universidad.dto.PosicionDocenteDTO;
+import com.universidad.exception.BusinessException;
 import com.universidad.model.EvaluacionDocente;
 import com.universidad.service.IEvaluacionDocenteService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/evaluaciones-docente")
@@ -15,7 +19,16 @@ public class EvaluacionDocenteController {
     private IEvaluacionDocenteService evaluacionDocenteService;
 
     @PostMapping
-    public ResponseEntity<EvaluacionDocente> crearEvaluacion(@RequestBody EvaluacionDocente evaluacion) {
+    public ResponseEntity<?> crearEvaluacion(@RequestBody EvaluacionDocente evaluacion) {
+        if (evaluacionDocenteService.isIngestaDiferida()) {
+            // 202: la evaluación quedó en el buffer y se guarda en segundo plano
+            try {
+                String clave = evaluacionDocenteService.encolarEvaluacion(evaluacion);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("claveIngesta", clave));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
         EvaluacionDocente nueva = evaluacionDocenteService.crearEvaluacion(evaluacion);
         return ResponseEntity.status(HttpStatus.CREATED).body(nueva);
     }
@@ -26,6 +39,28 @@ public class EvaluacionDocenteController {
         return ResponseEntity.ok(evaluaciones);
     }
 
+    @GetMapping("/docente/{docenteId}/estadisticas")
+    public ResponseEntity<EstadisticasDocenteDTO> obtenerEstadisticasPorDocente(@PathVariable Long docenteId) {
+        return ResponseEntity.ok(evaluacionDocenteService.obtenerEstadisticas(docenteId));
+    }
+
+    @GetMapping("/ranking")
+    public ResponseEntity<List<PosicionDocenteDTO>> obtenerRanking(
+            @RequestParam(required = false) String departamento,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "10") int tamano) {
+        return ResponseEntity.ok(evaluacionDocenteService.obtenerRanking(departamento, pagina, tamano));
+    }
+
+    @GetMapping("/ranking/docente/{docenteId}")
+    public ResponseEntity<PosicionDocenteDTO> obtenerPosicionEnRanking(@PathVariable Long docenteId) {
+        PosicionDocenteDTO posicion = evaluacionDocenteService.obtenerPosicionEnRanking(docenteId);
+        if (posicion == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(posicion);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<EvaluacionDocente> obtenerEvaluacionPorId(@PathVariable Long id) {
         EvaluacionDocente evaluacion = evaluacionDocenteService.obtenerEvaluacionPorId(id);
@@ -1,10 +1,22 @@
 package com.universidad.controller;
 
+import com.universidad.concurrency.AdmisionInscripciones;
+import com.universidad.concurrency.IdempotencyManager;
+import com.universidad.concurrency.InscripcionDispatcher;
 import com.universidad.exception.BusinessException;
+import com.universidad.exception.CupoAgotadoException;
 import com.universidad.model.Inscripcion;
 import com.universidad.model.Inscripcion.EstadoInscripcion;
 import com.universidad.service.IInscripcionService;
+import com.universidad.service.IListaEsperaService;
+import com.universidad.service.IReservaCupoService;
+import com.universidad.service.ISorteoService;
+import com.universidad.dto.CargaNotasResultadoDTO;
 import com.universidad.dto.InscripcionDTO;
+import com.universidad.dto.ListaEsperaDTO;
+import com.universidad.dto.NotaEstudianteDTO;
+import com.universidad.dto.ReservaCupoDTO;
+import com.universidad.dto.SolicitudSorteoDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,10 +26,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/inscripciones")
@@ -27,24 +41,168 @@ public class InscripcionController {
     @Autowired
     private IInscripcionService inscripcionService;
 
-    @Operation(summary = "Crear una nueva inscripción", description = "Crea una nueva inscripción de un estudiante a una materia")
+    @Autowired
+    private InscripcionDispatcher inscripcionDispatcher;
+
+    @Autowired
+    private IListaEsperaService listaEsperaService;
+
+    @Autowired
+    private IdempotencyManager idempotencyManager;
+
+    @Autowired
+    private AdmisionInscripciones admisionInscripciones;
+
+    @Autowired
+    private IReservaCupoService reservaCupoService;
+
+    @Autowired
+    private ISorteoService sorteoService;
+
+    @Operation(summary = "Crear una nueva inscripción", description = "Crea una nueva inscripción de un estudiante a una materia. La solicitud se procesa en el carril de la materia; si no hay cupo, el estudiante queda en la lista de espera. Los reintentos con la misma cabecera Idempotency-Key reciben la respuesta original")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Inscripción creada exitosamente", content = @Content(schema = @Schema(implementation = Inscripcion.class))),
+            @ApiResponse(responseCode = "201", description = "Inscripción creada exitosamente", content = @Content(schema = @Schema(implementation = InscripcionDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Sin cupo: el estudiante quedó en la lista de espera", content = @Content(schema = @Schema(implementation = ListaEsperaDTO.class))),
             @ApiResponse(responseCode = "400", description = "Datos inválidos o error de validación"),
-            @ApiResponse(responseCode = "404", description = "Estudiante o materia no encontrados")
+            @ApiResponse(responseCode = "404", description = "Estudiante o materia no encontrados"),
+            @ApiResponse(responseCode = "409", description = "La solicitud original con la misma Idempotency-Key todavía se está procesando"),
+            @ApiResponse(responseCode = "503", description = "La cola de inscripciones de la materia está saturada")
     })
     @PostMapping("/estudiante/{estudianteId}/materia/{materiaId}")
-    public ResponseEntity<Inscripcion> crearInscripcion(
+    public ResponseEntity<?> crearInscripcion(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId,
+            @Parameter(description = "Clave para reintentar la solicitud sin duplicarla") @RequestHeader(value = IdempotencyManager.HEADER, required = false) String idempotencyKey) {
+        String ambito = "inscripcion:" + estudianteId + ":" + materiaId;
+        // La admisión se aplica después de buscar la respuesta guardada, así un
+        // reintento idempotente no se rechaza con 429
+        return idempotencyManager.ejecutar(ambito, idempotencyKey, () -> admisionInscripciones.admitir(estudianteId), () -> {
+            try {
+                InscripcionDTO inscripcion = inscripcionDispatcher.inscribir(estudianteId, materiaId);
+                return ResponseEntity.status(HttpStatus.CREATED).body(inscripcion);
+            } catch (CupoAgotadoException e) {
+                // En lugar de rechazar y provocar reintentos, el estudiante queda en espera
+                ListaEsperaDTO turno = listaEsperaService.encolar(estudianteId, materiaId);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(turno);
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    @Operation(summary = "Inscribir un carrito de materias", description = "Inscribe al estudiante en todas las materias indicadas en una sola transacción. Si alguna se rechaza, no se crea ninguna inscripción")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Todas las inscripciones creadas"),
+            @ApiResponse(responseCode = "400", description = "Alguna materia fue rechazada; el mensaje indica cuál")
+    })
+    @PostMapping("/estudiante/{estudianteId}/carrito")
+    public ResponseEntity<?> inscribirCarrito(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "IDs de las materias") @RequestBody List<Long> materiaIds) {
+        try {
+            List<InscripcionDTO> inscripciones = inscripcionService.inscribirCarrito(estudianteId, materiaIds)
+                    .stream().map(inscripcionService::mapToDTO).toList();
+            return ResponseEntity.status(HttpStatus.CREATED).body(inscripciones);
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Solicitar cupo en el sorteo", description = "Registra al estudiante en el sorteo de una materia en modo sorteo. Los cupos se asignan cuando cierra la ventana de solicitudes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Solicitud registrada", content = @Content(schema = @Schema(implementation = SolicitudSorteoDTO.class))),
+            @ApiResponse(responseCode = "400", description = "La materia no está en modo sorteo o la ventana ya cerró")
+    })
+    @PostMapping("/sorteo/estudiante/{estudianteId}/materia/{materiaId}")
+    public ResponseEntity<SolicitudSorteoDTO> solicitarSorteo(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(sorteoService.solicitar(estudianteId, materiaId));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Reservar un cupo", description = "Retiene un cupo de la materia para el estudiante durante unos minutos. La reserva se confirma al crear la inscripción y se libera sola al vencer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Cupo reservado", content = @Content(schema = @Schema(implementation = ReservaCupoDTO.class))),
+            @ApiResponse(responseCode = "400", description = "El estudiante no puede inscribirse en la materia"),
+            @ApiResponse(responseCode = "409", description = "No quedan cupos sin reservar")
+    })
+    @PostMapping("/reservas/estudiante/{estudianteId}/materia/{materiaId}")
+    public ResponseEntity<ReservaCupoDTO> reservarCupo(
             @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
             @Parameter(description = "ID de la materia") @PathVariable Long materiaId) {
         try {
-            Inscripcion inscripcion = inscripcionService.crearInscripcion(estudianteId, materiaId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(inscripcion);
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservaCupoService.reservar(estudianteId, materiaId));
+        } catch (CupoAgotadoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (BusinessException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @Operation(summary = "Consultar una reserva de cupo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reserva vigente"),
+            @ApiResponse(responseCode = "404", description = "No hay reserva vigente")
+    })
+    @GetMapping("/reservas/estudiante/{estudianteId}/materia/{materiaId}")
+    public ResponseEntity<ReservaCupoDTO> obtenerReservaCupo(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId) {
+        ReservaCupoDTO reserva = reservaCupoService.obtenerReserva(estudianteId, materiaId);
+        return reserva != null ? ResponseEntity.ok(reserva) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Liberar una reserva de cupo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Reserva liberada"),
+            @ApiResponse(responseCode = "404", description = "No hay reserva vigente")
+    })
+    @DeleteMapping("/reservas/estudiante/{estudianteId}/materia/{materiaId}")
+    public ResponseEntity<Void> cancelarReservaCupo(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId) {
+        try {
+            reservaCupoService.cancelar(estudianteId, materiaId);
+            return ResponseEntity.noContent().build();
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Consultar el turno en la lista de espera", description = "Devuelve la posición del estudiante en la lista de espera de la materia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Turno encontrado"),
+            @ApiResponse(responseCode = "404", description = "El estudiante no está en la lista de espera")
+    })
+    @GetMapping("/lista-espera/estudiante/{estudianteId}/materia/{materiaId}")
+    public ResponseEntity<ListaEsperaDTO> obtenerTurnoListaEspera(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId) {
+        ListaEsperaDTO turno = listaEsperaService.obtenerTurno(estudianteId, materiaId);
+        return turno != null ? ResponseEntity.ok(turno) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Salir de la lista de espera")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Turno cancelado"),
+            @ApiResponse(responseCode = "404", description = "El estudiante no está en la lista de espera")
+    })
+    @DeleteMapping("/lista-espera/estudiante/{estudianteId}/materia/{materiaId}")
+    public ResponseEntity<Void> cancelarTurnoListaEspera(
+            @Parameter(description = "ID del estudiante") @PathVariable Long estudianteId,
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId) {
+        try {
+            listaEsperaService.cancelar(estudianteId, materiaId);
+            return ResponseEntity.noContent().build();
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @Operation(summary = "Actualizar estado de una inscripción")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Estado actualizado exitosamente"),
@@ -76,8 +234,7 @@ public class InscripcionController {
             if (nota < 0 || nota > 10) {
                 return ResponseEntity.badRequest().build();
             }
-            Inscripcion inscripcion = inscripcionService.obtenerInscripcionPorId(id);
-            inscripcionService.actualizarNota(id, nota);
+            Inscripcion inscripcion = inscripcionService.actualizarNota(id, nota);
             return ResponseEntity.ok(inscripcionService.mapToDTO(inscripcion));
         } catch (BusinessException e) {
             if (e.getMessage().contains("no existe")) {
@@ -89,6 +246,42 @@ public class InscripcionController {
         }
     }
 
+    @Operation(summary = "Cargar las notas de una materia", description = "Registra en bloque las notas de los estudiantes inscritos en la materia. Si alguna fila es inválida no se aplica ninguna")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notas aplicadas"),
+            @ApiResponse(responseCode = "400", description = "Filas inválidas; el resultado lista los errores"),
+            @ApiResponse(responseCode = "404", description = "Materia no encontrada")
+    })
+    @PostMapping(value = "/materia/{materiaId}/notas", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CargaNotasResultadoDTO> cargarNotas(
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId,
+            @RequestBody List<NotaEstudianteDTO> notas) {
+        try {
+            return responderCargaNotas(inscripcionService.cargarNotas(materiaId, notas));
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Cargar las notas de una materia desde CSV", description = "Mismo comportamiento que la carga JSON, con una línea estudianteId,nota por estudiante")
+    @PostMapping(value = "/materia/{materiaId}/notas", consumes = "text/csv")
+    public ResponseEntity<CargaNotasResultadoDTO> cargarNotasCsv(
+            @Parameter(description = "ID de la materia") @PathVariable Long materiaId,
+            @RequestBody String csv) {
+        try {
+            return responderCargaNotas(inscripcionService.cargarNotasCsv(materiaId, csv));
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private ResponseEntity<CargaNotasResultadoDTO> responderCargaNotas(CargaNotasResultadoDTO resultado) {
+        if (!resultado.getErrores().isEmpty()) {
+            return ResponseEntity.badRequest().body(resultado);
+        }
+        return ResponseEntity.ok(resultado);
+    }
+
     @Operation(summary = "Eliminar una inscripción")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Inscripción eliminada exitosamente"),
@@ -113,17 +306,7 @@ public class InscripcionController {
     @GetMapping("/{id}")
     public ResponseEntity<InscripcionDTO> obtenerInscripcionPorId(@PathVariable Long id) {
         try {
-            Inscripcion inscripcion = inscripcionService.obtenerInscripcionPorId(id);
-            InscripcionDTO dto = null;
-            if (inscripcion != null) {
-                dto = new InscripcionDTO();
-                dto.setId(inscripcion.getId());
-                dto.setEstudianteId(inscripcion.getEstudiante() != null ? inscripcion.getEstudiante().getId() : null);
-                dto.setMateriaId(inscripcion.getMateria() != null ? inscripcion.getMateria().getId() : null);
-                dto.setEstado(inscripcion.getEstado() != null ? inscripcion.getEstado().name() : null);
-                dto.setNota(inscripcion.getNota());
-                dto.setObservaciones(inscripcion.getObservaciones());
-            }
+            InscripcionDTO dto = inscripcionService.obtenerInscripcionDTOPorId(id);
             return dto != null ? ResponseEntity.ok(dto) : ResponseEntity.notFound().build();
         } catch (BusinessException e) {
             return ResponseEntity.notFound().build();
@@ -1,10 +1,8 @@
 package com.universidad.controller;
 
-import com.universidad.model.Materia;
+import com.universidad.exception.BusinessException;
 import com.universidad.service.IMateriaService;
 
-import jakarta.transaction.Transactional;
-
 import com.universidad.dto.MateriaDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,7 +11,10 @@ import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/materias")
@@ -85,24 +86,53 @@ public class MateriaController {
 
     @GetMapping("/formaria-circulo/{materiaId}/{prerequisitoId}") // Endpoint para verificar si una materia formaría un
                                                                   // círculo con un prerequisito
-    @Transactional // Anotación que indica que este método debe ejecutarse dentro de una
-                   // transacción
     public ResponseEntity<Boolean> formariaCirculo(@PathVariable Long materiaId, @PathVariable Long prerequisitoId) {
         MateriaDTO materiaDTO = materiaService.obtenerMateriaPorId(materiaId); // Obtiene la materia por su ID
         if (materiaDTO == null) { // Verifica si la materia existe
             return ResponseEntity.notFound().build();
         }
-        Materia materia = new Materia(materiaDTO.getId(), materiaDTO.getNombreMateria(), materiaDTO.getCodigoUnico());
-        // Crea una nueva instancia de Materia con los datos obtenidos
-        // Verifica si agregar el prerequisito formaría un círculo
-        boolean circulo = materia.formariaCirculo(prerequisitoId); // Llama al método formariaCirculo de la clase
-                                                                   // Materia
+        // Verifica contra el grafo de prerequisitos en memoria si agregar el
+        // prerequisito formaría un círculo
+        boolean circulo = materiaService.formariaCirculo(materiaId, prerequisitoId);
         if (circulo) { // Si formaría un círculo, retorna un error 400 Bad Request
             return ResponseEntity.badRequest().body(circulo);
         }
         return ResponseEntity.ok(circulo);
     }
 
+    @PostMapping("/{id}/prerequisitos") // Agrega varios prerequisitos en una sola operación
+    public ResponseEntity<MateriaDTO> agregarPrerequisitos(@PathVariable Long id, @RequestBody List<Long> prerequisitoIds) {
+        try {
+            return ResponseEntity.ok(materiaService.agregarPrerequisitos(id, prerequisitoIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (BusinessException e) {
+            logger.warn("[MATERIA] Prerequisitos rechazados para {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{id}/prerequisitos") // Quita varios prerequisitos en una sola operación
+    public ResponseEntity<MateriaDTO> quitarPrerequisitos(@PathVariable Long id, @RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(materiaService.quitarPrerequisitos(id, ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/prerequisitos/validar") // Valida un catálogo de prerequisitos (materiaId -> prerequisitos) antes de importarlo
+    public ResponseEntity<Map<String, Object>> validarPrerequisitos(@RequestBody Map<Long, List<Long>> prerequisitosPorMateria) {
+        long inicio = System.currentTimeMillis();
+        Set<Long> enCiclo = materiaService.validarPrerequisitos(prerequisitosPorMateria);
+        long fin = System.currentTimeMillis();
+        logger.info("[MATERIA] Validacion de {} materias (Duracion: {} ms)", prerequisitosPorMateria.size(), (fin - inicio));
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("aciclico", enCiclo.isEmpty());
+        resultado.put("materiasEnCiclo", enCiclo);
+        return enCiclo.isEmpty() ? ResponseEntity.ok(resultado) : ResponseEntity.badRequest().body(resultado);
+    }
+
     @PutMapping("/{id}/docente")
     public ResponseEntity<MateriaDTO> asignarDocente(@PathVariable Long id, @RequestParam Long docenteId) {
         try {
@@ -0,0 +1,29 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CargaNotasResultadoDTO implements Serializable {
+
+    private Long materiaId;
+    private Integer recibidas;
+    private Integer actualizadas;
+    private Integer sinCambios;
+    private Integer aprobadas;
+    private Integer reprobadas;
+
+    /**
+     * Filas rechazadas en la validación o que cambiaron de estado durante la
+     * carga. Si hay alguna no se aplica ninguna nota.
+     */
+    private List<String> errores;
+}
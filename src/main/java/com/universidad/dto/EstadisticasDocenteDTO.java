@@ -0,0 +1,35 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EstadisticasDocenteDTO implements Serializable {
+
+    private Long docenteId;
+    private Long cantidad;
+    private Double promedio;
+
+    /**
+     * Varianza muestral de las puntuaciones.
+     */
+    private Double varianza;
+    private Double desviacionEstandar;
+
+    /**
+     * Cantidad de evaluaciones por puntuación.
+     */
+    private Map<Integer, Long> histograma;
+
+    private Integer ventanaDias;
+    private Long cantidadVentana;
+    private Double promedioVentana;
+}
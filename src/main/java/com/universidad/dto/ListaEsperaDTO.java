@@ -0,0 +1,27 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListaEsperaDTO implements Serializable {
+
+    private Long id;
+    private Long estudianteId;
+    private Long materiaId;
+    private String estado;
+    private LocalDateTime fechaSolicitud;
+
+    /**
+     * Posición en la lista de espera (1 = próximo en ser promovido).
+     */
+    private Integer posicion;
+}
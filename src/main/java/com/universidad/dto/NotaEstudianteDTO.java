@@ -0,0 +1,18 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotaEstudianteDTO implements Serializable {
+
+    private Long estudianteId;
+    private Double nota;
+}
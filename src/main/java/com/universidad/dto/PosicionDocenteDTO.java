@@ -0,0 +1,30 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PosicionDocenteDTO implements Serializable {
+
+    private Long docenteId;
+    private String departamento;
+    private Double promedio;
+
+    /**
+     * Posición (desde 1) en el ranking general de docentes por promedio.
+     */
+    private Integer posicion;
+
+    /**
+     * Posición (desde 1) dentro de su departamento; null si el departamento
+     * del docente no se conoce.
+     */
+    private Integer posicionDepartamento;
+}
@@ -0,0 +1,24 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservaCupoDTO implements Serializable {
+
+    private Long estudianteId;
+    private Long materiaId;
+
+    /**
+     * Momento en que la reserva vence si no se confirma la inscripción.
+     */
+    private LocalDateTime expiraEn;
+}
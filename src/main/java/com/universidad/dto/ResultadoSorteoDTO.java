@@ -0,0 +1,27 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoSorteoDTO implements Serializable {
+
+    private Long materiaId;
+    private Integer cuposDisponibles;
+    private Integer solicitudes;
+    private Integer asignadas;
+    private Integer noAsignadas;
+
+    /**
+     * Solicitudes que no participaron por no cumplir las reglas de inscripción
+     * (estudiante inactivo, ya inscrito o sin prerequisitos).
+     */
+    private Integer rechazadas;
+}
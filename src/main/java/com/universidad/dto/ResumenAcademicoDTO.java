@@ -0,0 +1,29 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumenAcademicoDTO implements Serializable {
+
+    private Long estudianteId;
+
+    /**
+     * Promedio de las notas finales (aprobadas y reprobadas) ponderado por los
+     * créditos de cada materia; null si todavía no tiene notas.
+     */
+    private Double promedioPonderado;
+
+    private Integer creditosAprobados;
+    private Integer materiasAprobadas;
+    private Integer materiasReprobadas;
+    private Integer materiasEnCurso;
+    private Integer creditosEnCurso;
+}
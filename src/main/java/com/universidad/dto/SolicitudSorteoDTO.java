@@ -0,0 +1,23 @@
+package com.universidad.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudSorteoDTO implements Serializable {
+
+    private Long id;
+    private Long estudianteId;
+    private Long materiaId;
+    private Double peso;
+    private String estado;
+    private LocalDateTime fechaSolicitud;
+}
@@ -0,0 +1,17 @@
+package com.universidad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento publicado por MateriaServiceImpl cuando cambian los créditos de una
+ * materia, para que los agregados que los usan se recalculen.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CreditosMateriaActualizadosEvent {
+
+    private final Long materiaId;
+}
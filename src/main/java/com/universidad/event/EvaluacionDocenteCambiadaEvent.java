@@ -0,0 +1,26 @@
+package com.universidad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Evento publicado por EvaluacionDocenteServiceImpl al crear o eliminar una
+ * evaluación. Lleva los datos que usan los agregados en memoria para no tener
+ * que volver a leer la evaluación (que ya no existe si fue eliminada).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EvaluacionDocenteCambiadaEvent {
+
+    private final Long evaluacionId;
+    private final Long docenteId;
+    private final Integer puntuacion;
+    private final LocalDate fecha;
+
+    /** true si la evaluación se creó, false si se eliminó. */
+    private final boolean alta;
+}
@@ -0,0 +1,28 @@
+package com.universidad.event;
+
+import com.universidad.model.Inscripcion.EstadoInscripcion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento publicado por InscripcionServiceImpl cada vez que una inscripción se
+ * crea o cambia de estado o de nota. Los índices en memoria lo escuchan después
+ * del commit para actualizarse de forma incremental.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InscripcionEstadoCambiadoEvent {
+
+    private final Long inscripcionId;
+    private final Long estudianteId;
+    private final Long materiaId;
+
+    /** Estado previo; null cuando la inscripción se acaba de crear. */
+    private final EstadoInscripcion estadoAnterior;
+    private final EstadoInscripcion estadoNuevo;
+
+    private final Double notaAnterior;
+    private final Double notaNueva;
+}
@@ -0,0 +1,21 @@
+package com.universidad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Evento publicado por SorteoServiceImpl al crear inscripciones por lotes. Las
+ * inserciones por lotes no devuelven los IDs de las inscripciones, por eso
+ * solo lleva los estudiantes afectados.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InscripcionesAsignadasEvent {
+
+    private final Long materiaId;
+    private final List<Long> estudianteIds;
+}
@@ -0,0 +1,20 @@
+package com.universidad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Evento publicado por MateriaServiceImpl cuando cambian los prerequisitos de
+ * una materia. Lleva la lista completa de prerequisitos resultante.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PrerequisitosActualizadosEvent {
+
+    private final Long materiaId;
+    private final List<Long> prerequisitoIds;
+}
@@ -0,0 +1,19 @@
+package com.universidad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento publicado cuando una reserva de cupo vence o el estudiante la cancela
+ * sin inscribirse. El cupo retenido vuelve a estar disponible y la lista de
+ * espera de la materia puede promover el siguiente turno.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReservaCupoLiberadaEvent {
+
+    private final Long estudianteId;
+    private final Long materiaId;
+}
@@ -0,0 +1,18 @@
+package com.universidad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento publicado por UsuarioServiceImpl al desactivar un usuario o cambiar
+ * sus roles. Los usuarios autenticados cacheados y los tokens ya emitidos
+ * dejan de ser válidos.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UsuarioCambiadoEvent {
+
+    private final String username;
+}
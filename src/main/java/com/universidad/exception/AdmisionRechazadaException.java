@@ -0,0 +1,20 @@
+package com.universidad.exception;
+
+/**
+ * Se lanza cuando el control de admisión no deja pasar una inscripción: la
+ * ventana del estudiante todavía no abrió o superó su tasa. Se traduce a un 429
+ * con el tiempo de espera en Retry-After.
+ */
+public class AdmisionRechazadaException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public AdmisionRechazadaException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -0,0 +1,13 @@
+package com.universidad.exception;
+
+/**
+ * Se lanza cuando una materia no tiene cupos disponibles. Permite distinguir
+ * este rechazo del resto de las reglas de negocio para ofrecer la lista de
+ * espera.
+ */
+public class CupoAgotadoException extends BusinessException {
+
+    public CupoAgotadoException(String message) {
+        super(message);
+    }
+}
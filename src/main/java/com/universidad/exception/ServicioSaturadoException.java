@@ -0,0 +1,17 @@
+package com.universidad.exception;
+
+/**
+ * Se lanza cuando un recurso interno acotado (colas, pools de hilos) no puede
+ * aceptar más trabajo. Se traduce a un 503 para que el cliente reintente más
+ * tarde.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+
+    public ServicioSaturadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,308 @@
+package com.universidad.index;
+
+import com.universidad.dto.EstadisticasDocenteDTO;
+import com.universidad.event.EvaluacionDocenteCambiadaEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Estadísticas de evaluaciones por docente mantenidas en memoria: cantidad,
+ * promedio y varianza (algoritmo de Welford, que también admite quitar
+ * valores), histograma de puntuaciones y una ventana de los últimos días.
+ *
+ * Se actualizan con cada alta o baja de evaluación, así la consulta no recorre
+ * las evaluaciones. {@link #reconstruir()} las recalcula desde la tabla y se
+ * usa al iniciar y periódicamente para corregir desvíos; los cambios que
+ * llegan mientras recorre la tabla se guardan y se reaplican antes de
+ * reemplazar las estadísticas. Cada cambio de promedio se propaga a
+ * {@link RankingDocentes}.
+ */
+@Component
+public class EstadisticasEvaluaciones {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasEvaluaciones.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RankingDocentes rankingDocentes;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.evaluaciones.estadisticas.ventana-dias:30}")
+    private int ventanaDias;
+
+    private volatile ConcurrentHashMap<Long, Acumulador> porDocente = new ConcurrentHashMap<>();
+
+    // Los cambios toman el lock de lectura y no se bloquean entre sí; la
+    // reconstrucción toma el de escritura solo para empezar a guardar los
+    // cambios y para reemplazar las estadísticas
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    // Cambios llegados durante la reconstrucción en curso; null si no hay una
+    private Queue<EvaluacionDocenteCambiadaEvent> pendientes;
+    private Set<Long> docentesQuitados;
+
+    private TransactionTemplate lecturaConsistente;
+
+    @PostConstruct
+    void iniciar() {
+        // Una sola foto de la tabla para el recorrido y para decidir qué
+        // cambios pendientes ya estaban incluidos en él
+        lecturaConsistente = new TransactionTemplate(transactionManager);
+        lecturaConsistente.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        lecturaConsistente.setReadOnly(true);
+    }
+
+    public EstadisticasDocenteDTO obtener(Long docenteId) {
+        Acumulador acumulador = porDocente.get(docenteId);
+        if (acumulador == null) {
+            acumulador = new Acumulador();
+        }
+        return acumulador.toDTO(docenteId, ventanaDias, LocalDate.now());
+    }
+
+    /**
+     * Promedio actual del docente, o null si no tiene evaluaciones.
+     */
+    public Double promedio(Long docenteId) {
+        Acumulador acumulador = porDocente.get(docenteId);
+        return acumulador != null ? acumulador.promedio() : null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvaluacionDocenteCambiada(EvaluacionDocenteCambiadaEvent event) {
+        if (event.getPuntuacion() == null) {
+            return;
+        }
+        bloqueo.readLock().lock();
+        try {
+            if (pendientes != null) {
+                pendientes.add(event);
+            }
+            Acumulador acumulador = porDocente.computeIfAbsent(event.getDocenteId(), id -> new Acumulador());
+            // El ranking se actualiza bajo el mismo lock para que dos cambios del
+            // mismo docente no lleguen al ranking en distinto orden
+            synchronized (acumulador) {
+                aplicar(acumulador, event);
+                rankingDocentes.actualizar(event.getDocenteId(), acumulador.promedio());
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta las estadísticas de un docente eliminado, cuyas evaluaciones se
+     * borran en cascada sin pasar por el servicio.
+     */
+    public void quitarDocente(Long docenteId) {
+        bloqueo.readLock().lock();
+        try {
+            if (docentesQuitados != null) {
+                docentesQuitados.add(docenteId);
+            }
+            porDocente.remove(docenteId);
+            rankingDocentes.quitar(docenteId);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recalcula todas las estadísticas recorriendo la tabla una vez y reemplaza
+     * las actuales. Los cambios que llegan durante el recorrido se reaplican
+     * sobre el resultado, salvo los que la foto de la tabla ya incluía.
+     * @return cantidad de evaluaciones procesadas
+     */
+    public synchronized long reconstruir() {
+        long inicio = System.currentTimeMillis();
+        ConcurrentHashMap<Long, Acumulador> nuevo = new ConcurrentHashMap<>();
+        long[] filas = new long[1];
+        Queue<EvaluacionDocenteCambiadaEvent> cambios = new ConcurrentLinkedQueue<>();
+        Set<Long> quitados = ConcurrentHashMap.newKeySet();
+        // Se empieza a guardar antes de leer: un cambio que llega después ya
+        // queda registrado, y uno confirmado antes está en la foto
+        bloqueo.writeLock().lock();
+        try {
+            pendientes = cambios;
+            docentesQuitados = quitados;
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        int[] reaplicados = new int[1];
+        try {
+            lecturaConsistente.executeWithoutResult(status -> {
+                jdbcTemplate.query(
+                        "SELECT docente_id, puntuacion, fecha FROM evaluacion_docente WHERE puntuacion IS NOT NULL",
+                        rs -> {
+                            Date fecha = rs.getDate(3);
+                            nuevo.computeIfAbsent(rs.getLong(1), id -> new Acumulador())
+                                    .agregar(rs.getInt(2), fecha != null ? fecha.toLocalDate() : null, ventanaDias);
+                            filas[0]++;
+                        });
+                bloqueo.writeLock().lock();
+                try {
+                    reaplicados[0] = reaplicar(nuevo, new ArrayList<>(cambios));
+                    quitados.forEach(nuevo::remove);
+                    porDocente = nuevo;
+                    Map<Long, Double> promedios = new HashMap<>();
+                    nuevo.forEach((docenteId, acumulador) -> promedios.put(docenteId, acumulador.promedio()));
+                    rankingDocentes.reconstruir(promedios);
+                } finally {
+                    bloqueo.writeLock().unlock();
+                }
+            });
+        } finally {
+            bloqueo.writeLock().lock();
+            try {
+                pendientes = null;
+                docentesQuitados = null;
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+        }
+        long fin = System.currentTimeMillis();
+        logger.info("[EVALUACION] Estadísticas reconstruidas: {} evaluaciones de {} docentes, {} cambios reaplicados (Duracion: {} ms)",
+                filas[0], nuevo.size(), reaplicados[0], (fin - inicio));
+        return filas[0];
+    }
+
+    // Se consulta en la misma foto qué evaluaciones de los cambios existían. Un
+    // alta que ya estaba, o una baja de una evaluación que ya no estaba (y cuya
+    // alta no se reaplicó), quedaron reflejadas en el recorrido
+    private int reaplicar(Map<Long, Acumulador> nuevo, List<EvaluacionDocenteCambiadaEvent> cambios) {
+        if (cambios.isEmpty()) {
+            return 0;
+        }
+        Set<Long> ids = new HashSet<>();
+        cambios.forEach(cambio -> ids.add(cambio.getEvaluacionId()));
+        Set<Long> enFoto = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM evaluacion_docente WHERE puntuacion IS NOT NULL AND id IN ("
+                        + String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+                Long.class, ids.toArray()));
+        Set<Long> altasReaplicadas = new HashSet<>();
+        int reaplicados = 0;
+        for (EvaluacionDocenteCambiadaEvent cambio : cambios) {
+            Long id = cambio.getEvaluacionId();
+            boolean reaplicar = cambio.isAlta()
+                    ? !enFoto.contains(id)
+                    : enFoto.contains(id) || altasReaplicadas.contains(id);
+            if (!reaplicar) {
+                continue;
+            }
+            if (cambio.isAlta()) {
+                altasReaplicadas.add(id);
+            }
+            aplicar(nuevo.computeIfAbsent(cambio.getDocenteId(), docenteId -> new Acumulador()), cambio);
+            reaplicados++;
+        }
+        return reaplicados;
+    }
+
+    private void aplicar(Acumulador acumulador, EvaluacionDocenteCambiadaEvent event) {
+        if (event.isAlta()) {
+            acumulador.agregar(event.getPuntuacion(), event.getFecha(), ventanaDias);
+        } else {
+            acumulador.quitar(event.getPuntuacion(), event.getFecha());
+        }
+    }
+
+    private static final class Acumulador {
+        private long cantidad;
+        private double media;
+        private double m2;
+        private final TreeMap<Integer, Long> histograma = new TreeMap<>();
+        // Día -> {cantidad, suma} de las evaluaciones dentro de la ventana
+        private final TreeMap<LocalDate, long[]> porDia = new TreeMap<>();
+
+        synchronized void agregar(int puntuacion, LocalDate fecha, int ventanaDias) {
+            cantidad++;
+            double delta = puntuacion - media;
+            media += delta / cantidad;
+            m2 += delta * (puntuacion - media);
+            histograma.merge(puntuacion, 1L, Long::sum);
+
+            LocalDate limite = LocalDate.now().minusDays(ventanaDias - 1L);
+            porDia.headMap(limite).clear();
+            if (fecha != null && !fecha.isBefore(limite)) {
+                long[] dia = porDia.computeIfAbsent(fecha, d -> new long[2]);
+                dia[0]++;
+                dia[1] += puntuacion;
+            }
+        }
+
+        synchronized void quitar(int puntuacion, LocalDate fecha) {
+            if (cantidad <= 1) {
+                cantidad = 0;
+                media = 0;
+                m2 = 0;
+            } else {
+                double mediaAnterior = (cantidad * media - puntuacion) / (cantidad - 1);
+                m2 -= (puntuacion - media) * (puntuacion - mediaAnterior);
+                media = mediaAnterior;
+                cantidad--;
+            }
+            histograma.computeIfPresent(puntuacion, (p, c) -> c > 1 ? c - 1 : null);
+            long[] dia = fecha != null ? porDia.get(fecha) : null;
+            if (dia != null) {
+                dia[0]--;
+                dia[1] -= puntuacion;
+                if (dia[0] <= 0) {
+                    porDia.remove(fecha);
+                }
+            }
+        }
+
+        synchronized Double promedio() {
+            return cantidad > 0 ? media : null;
+        }
+
+        synchronized EstadisticasDocenteDTO toDTO(Long docenteId, int ventanaDias, LocalDate hoy) {
+            long cantidadVentana = 0;
+            long sumaVentana = 0;
+            for (long[] dia : porDia.tailMap(hoy.minusDays(ventanaDias - 1L)).values()) {
+                cantidadVentana += dia[0];
+                sumaVentana += dia[1];
+            }
+            double varianza = cantidad > 1 ? Math.max(0, m2 / (cantidad - 1)) : 0;
+            return EstadisticasDocenteDTO.builder()
+                    .docenteId(docenteId)
+                    .cantidad(cantidad)
+                    .promedio(cantidad > 0 ? media : null)
+                    .varianza(varianza)
+                    .desviacionEstandar(Math.sqrt(varianza))
+                    .histograma(new TreeMap<>(histograma))
+                    .ventanaDias(ventanaDias)
+                    .cantidadVentana(cantidadVentana)
+                    .promedioVentana(cantidadVentana > 0 ? (double) sumaVentana / cantidadVentana : null)
+                    .build();
+        }
+    }
+}
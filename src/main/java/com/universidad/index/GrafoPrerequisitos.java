@@ -0,0 +1,542 @@
+package com.universidad.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.universidad.cache.CanalInvalidacion;
+import com.universidad.event.InscripcionEstadoCambiadoEvent;
+import com.universidad.event.PrerequisitosActualizadosEvent;
+import com.universidad.model.Inscripcion.EstadoInscripcion;
+import com.universidad.repository.InscripcionRepository;
+import com.universidad.repository.MateriaRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grafo de prerequisitos en memoria construido a partir de la tabla
+ * materia_prerequisito.
+ *
+ * Cada materia recibe una posición densa; los prerequisitos de una materia se
+ * guardan como arreglo de IDs y como BitSet de posiciones, y las materias
+ * aprobadas por cada estudiante como otro BitSet. Validar prerequisitos se
+ * reduce a comprobar que un BitSet esté contenido en el otro.
+ *
+ * La estructura del grafo es inmutable: cada modificación publica una copia
+ * nueva, por lo que las lecturas no necesitan bloqueo.
+ *
+ * Solo se validan los prerequisitos directos, como hacía la validación
+ * anterior: no se mantiene una clausura transitiva. Aprobar una materia ya
+ * exigió tener aprobados sus propios prerequisitos, y la clausura habría que
+ * recalcularla para todas las materias dependientes en cada edición.
+ *
+ * Las aristas editadas en este nodo se avisan a los demás por el
+ * {@link CanalInvalidacion}; al recibir el aviso se vuelve a leer la materia de
+ * materia_prerequisito. Además el grafo se relee completo cada tanto, por si se
+ * pierde algún aviso.
+ *
+ * Las materias aprobadas de un estudiante se descartan cuando cambia una de sus
+ * inscripciones, en este nodo y en los demás (por el {@link CanalInvalidacion}
+ * de las cachés), y vencen con un TTL por si se pierde un aviso o la base se
+ * modifica por fuera de la aplicación.
+ */
+@Component
+public class GrafoPrerequisitos {
+
+    @Autowired
+    private MateriaRepository materiaRepository;
+
+    @Autowired
+    private InscripcionRepository inscripcionRepository;
+
+    @Autowired
+    private CanalInvalidacion canal;
+
+    // Nombre con el que viajan las invalidaciones por el canal de cachés
+    static final String CANAL = "aprobadas";
+    static final String CANAL_PREREQUISITOS = "prerequisitos";
+
+    @Value("${app.prerequisitos.max-estudiantes:100000}")
+    private int maxEstudiantes;
+
+    @Value("${app.prerequisitos.aprobadas.ttl-minutos:30}")
+    private long ttlAprobadasMinutos;
+
+    private volatile Estructura estructura;
+    // Cambios aplicados al grafo; la relectura periódica no pisa uno posterior a su consulta
+    private long modificaciones;
+
+    // Materias aprobadas por estudiante. Los BitSet nunca se modifican una vez
+    // publicados: un cambio descarta la entrada y se vuelve a cargar.
+    private Cache<Long, BitSet> aprobadasPorEstudiante;
+
+    @PostConstruct
+    void iniciar() {
+        aprobadasPorEstudiante = Caffeine.newBuilder()
+                .maximumSize(maxEstudiantes)
+                .expireAfterWrite(Duration.ofMinutes(ttlAprobadasMinutos))
+                .build();
+        canal.suscribir((cache, clave) -> {
+            if (CANAL.equals(cache)) {
+                if (clave == null) {
+                    aprobadasPorEstudiante.invalidateAll();
+                } else {
+                    aprobadasPorEstudiante.invalidate(Long.valueOf(clave));
+                }
+            } else if (CANAL_PREREQUISITOS.equals(cache)) {
+                if (clave == null) {
+                    recargarLocal();
+                } else {
+                    releerMateria(Long.valueOf(clave));
+                }
+            }
+        });
+    }
+
+    /**
+     * Indica si el estudiante aprobó todos los prerequisitos directos de la
+     * materia.
+     */
+    public boolean cumplePrerequisitos(Long estudianteId, Long materiaId) {
+        BitSet requeridos = obtenerEstructura().requeridos.get(materiaId);
+        if (requeridos == null || requeridos.isEmpty()) {
+            return true;
+        }
+        BitSet aprobadas = obtenerAprobadas(estudianteId);
+        for (int i = requeridos.nextSetBit(0); i >= 0; i = requeridos.nextSetBit(i + 1)) {
+            if (!aprobadas.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * IDs de los prerequisitos directos de la materia.
+     */
+    public long[] obtenerPrerequisitos(Long materiaId) {
+        long[] prerequisitos = obtenerEstructura().prerequisitos.get(materiaId);
+        return prerequisitos != null ? prerequisitos.clone() : new long[0];
+    }
+
+    /**
+     * Indica si agregar prerequisitoId como prerequisito de materiaId formaría
+     * un ciclo, es decir, si materiaId ya es alcanzable desde prerequisitoId.
+     * Recorre el grafo en profundidad de forma iterativa.
+     */
+    public boolean formariaCiclo(Long materiaId, Long prerequisitoId) {
+        return alcanzable(obtenerEstructura().prerequisitos, prerequisitoId, materiaId);
+    }
+
+    /**
+     * Devuelve los prerequisitos que no pueden agregarse a la materia porque
+     * formarían un ciclo. Cada candidato se evalúa considerando también los
+     * candidatos anteriores de la misma lista.
+     */
+    public List<Long> prerequisitosQueFormanCiclo(Long materiaId, Collection<Long> prerequisitoIds) {
+        return prerequisitosQueFormanCiclo(new HashMap<>(obtenerEstructura().prerequisitos), materiaId,
+                prerequisitoIds);
+    }
+
+    /**
+     * Igual que {@link #prerequisitosQueFormanCiclo(Long, Collection)}, pero
+     * contra las aristas de la tabla materia_prerequisito. Pensado para usarse
+     * dentro de la transacción que va a modificarlas, con la edición de
+     * prerequisitos serializada: el grafo en memoria se actualiza recién
+     * después del commit y puede no incluir una edición concurrente.
+     */
+    public List<Long> prerequisitosQueFormanCicloEnBase(Long materiaId, Collection<Long> prerequisitoIds) {
+        return prerequisitosQueFormanCiclo(leerAristas(), materiaId, prerequisitoIds);
+    }
+
+    private static List<Long> prerequisitosQueFormanCiclo(Map<Long, long[]> aristas, Long materiaId,
+            Collection<Long> prerequisitoIds) {
+        List<Long> conflictivos = new ArrayList<>();
+        for (Long prerequisitoId : prerequisitoIds) {
+            if (alcanzable(aristas, prerequisitoId, materiaId)) {
+                conflictivos.add(prerequisitoId);
+            } else {
+                long[] actuales = aristas.getOrDefault(materiaId, new long[0]);
+                long[] ampliados = Arrays.copyOf(actuales, actuales.length + 1);
+                ampliados[actuales.length] = prerequisitoId;
+                aristas.put(materiaId, ampliados);
+            }
+        }
+        return conflictivos;
+    }
+
+    /**
+     * Valida un conjunto de prerequisitos (por ejemplo, la importación de un
+     * catálogo) combinado con el grafo actual. Un orden topológico (algoritmo
+     * de Kahn) descarta las materias que no dependen de ningún ciclo; en lo que
+     * queda, las componentes fuertemente conexas (algoritmo de Tarjan) separan
+     * las materias que forman un ciclo de las que solo dependen de uno.
+     *
+     * @param nuevas prerequisitos a agregar por materia
+     * @return materias que forman parte de algún ciclo; vacío si el grafo resultante es acíclico
+     */
+    public Set<Long> materiasEnCiclo(Map<Long, ? extends Collection<Long>> nuevas) {
+        Map<Long, Set<Long>> aristas = new HashMap<>();
+        obtenerEstructura().prerequisitos.forEach((materiaId, prerequisitos) -> {
+            Set<Long> destino = aristas.computeIfAbsent(materiaId, k -> new HashSet<>());
+            for (long prerequisito : prerequisitos) {
+                destino.add(prerequisito);
+            }
+        });
+        nuevas.forEach((materiaId, prerequisitos) -> aristas
+                .computeIfAbsent(materiaId, k -> new HashSet<>()).addAll(prerequisitos));
+
+        // Grado de entrada = cantidad de prerequisitos pendientes de cada materia
+        Map<Long, Integer> pendientes = new HashMap<>();
+        Map<Long, List<Long>> dependientes = new HashMap<>();
+        aristas.forEach((materiaId, prerequisitos) -> {
+            pendientes.merge(materiaId, prerequisitos.size(), Integer::sum);
+            for (Long prerequisito : prerequisitos) {
+                pendientes.putIfAbsent(prerequisito, 0);
+                dependientes.computeIfAbsent(prerequisito, k -> new ArrayList<>()).add(materiaId);
+            }
+        });
+
+        Deque<Long> listos = new ArrayDeque<>();
+        pendientes.forEach((materiaId, grado) -> {
+            if (grado == 0) {
+                listos.add(materiaId);
+            }
+        });
+        while (!listos.isEmpty()) {
+            Long materiaId = listos.poll();
+            pendientes.remove(materiaId);
+            for (Long dependiente : dependientes.getOrDefault(materiaId, List.of())) {
+                if (pendientes.merge(dependiente, -1, Integer::sum) == 0) {
+                    listos.add(dependiente);
+                }
+            }
+        }
+        return pendientes.isEmpty() ? Set.of() : materiasEnComponentesCiclicas(pendientes.keySet(), aristas);
+    }
+
+    // Tarjan iterativo sobre las materias que quedaron después de Kahn, para no
+    // depender de la profundidad de la pila con cadenas largas de prerequisitos.
+    // Una componente es un ciclo si tiene más de una materia o una arista a sí misma
+    private static Set<Long> materiasEnComponentesCiclicas(Set<Long> materias, Map<Long, Set<Long>> aristas) {
+        Map<Long, Integer> indice = new HashMap<>();
+        Map<Long, Integer> minimo = new HashMap<>();
+        Deque<Long> pila = new ArrayDeque<>();
+        Set<Long> enPila = new HashSet<>();
+        Set<Long> enCiclo = new HashSet<>();
+        for (Long raiz : materias) {
+            if (indice.containsKey(raiz)) {
+                continue;
+            }
+            Deque<Visita> recorrido = new ArrayDeque<>();
+            recorrido.push(visitar(raiz, aristas, indice, minimo, pila, enPila));
+            while (!recorrido.isEmpty()) {
+                Visita visita = recorrido.peek();
+                if (visita.prerequisitos.hasNext()) {
+                    Long prerequisito = visita.prerequisitos.next();
+                    if (!materias.contains(prerequisito)) {
+                        continue;
+                    }
+                    if (!indice.containsKey(prerequisito)) {
+                        recorrido.push(visitar(prerequisito, aristas, indice, minimo, pila, enPila));
+                    } else if (enPila.contains(prerequisito)) {
+                        minimo.merge(visita.materiaId, indice.get(prerequisito), Math::min);
+                    }
+                    continue;
+                }
+                recorrido.pop();
+                Long materiaId = visita.materiaId;
+                if (!recorrido.isEmpty()) {
+                    minimo.merge(recorrido.peek().materiaId, minimo.get(materiaId), Math::min);
+                }
+                if (minimo.get(materiaId).equals(indice.get(materiaId))) {
+                    List<Long> componente = new ArrayList<>();
+                    Long miembro;
+                    do {
+                        miembro = pila.pop();
+                        enPila.remove(miembro);
+                        componente.add(miembro);
+                    } while (!miembro.equals(materiaId));
+                    if (componente.size() > 1 || aristas.getOrDefault(materiaId, Set.of()).contains(materiaId)) {
+                        enCiclo.addAll(componente);
+                    }
+                }
+            }
+        }
+        return enCiclo;
+    }
+
+    private static Visita visitar(Long materiaId, Map<Long, Set<Long>> aristas, Map<Long, Integer> indice,
+            Map<Long, Integer> minimo, Deque<Long> pila, Set<Long> enPila) {
+        int orden = indice.size();
+        indice.put(materiaId, orden);
+        minimo.put(materiaId, orden);
+        pila.push(materiaId);
+        enPila.add(materiaId);
+        return new Visita(materiaId, aristas.getOrDefault(materiaId, Set.of()).iterator());
+    }
+
+    /**
+     * Aplica en el grafo los prerequisitos confirmados en la base de datos.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrerequisitosActualizados(PrerequisitosActualizadosEvent evento) {
+        actualizarPrerequisitos(evento.getMateriaId(), evento.getPrerequisitoIds());
+        canal.publicar(CANAL_PREREQUISITOS, String.valueOf(evento.getMateriaId()));
+    }
+
+    /**
+     * Reemplaza los prerequisitos directos de una materia.
+     */
+    public synchronized void actualizarPrerequisitos(Long materiaId, Collection<Long> prerequisitoIds) {
+        Estructura actual = obtenerEstructura();
+        Estructura nueva = actual.copiar();
+        long[] ids = prerequisitoIds.stream().mapToLong(Long::longValue).distinct().toArray();
+        nueva.asignar(materiaId, ids);
+        estructura = nueva;
+        modificaciones++;
+    }
+
+    /**
+     * Quita la materia del grafo, tanto como nodo como prerequisito de otras,
+     * en este nodo y en los demás.
+     */
+    public void eliminarMateria(Long materiaId) {
+        quitarMateria(materiaId);
+        canal.publicar(CANAL_PREREQUISITOS, String.valueOf(materiaId));
+    }
+
+    private synchronized void quitarMateria(Long materiaId) {
+        Estructura nueva = obtenerEstructura().copiar();
+        nueva.prerequisitos.remove(materiaId);
+        nueva.requeridos.remove(materiaId);
+        List<Long> dependientes = new ArrayList<>();
+        nueva.prerequisitos.forEach((id, prerequisitos) -> {
+            for (long prerequisito : prerequisitos) {
+                if (prerequisito == materiaId) {
+                    dependientes.add(id);
+                    break;
+                }
+            }
+        });
+        for (Long id : dependientes) {
+            long[] restantes = Arrays.stream(nueva.prerequisitos.get(id))
+                    .filter(p -> p != materiaId)
+                    .toArray();
+            nueva.asignar(id, restantes);
+        }
+        estructura = nueva;
+        modificaciones++;
+    }
+
+    /**
+     * Descarta el grafo y las materias aprobadas cacheadas, en este nodo y en
+     * los demás; se vuelven a cargar en el próximo uso.
+     */
+    public void recargar() {
+        recargarLocal();
+        canal.publicar(CANAL_PREREQUISITOS, null);
+    }
+
+    private synchronized void recargarLocal() {
+        estructura = null;
+        modificaciones++;
+        aprobadasPorEstudiante.invalidateAll();
+    }
+
+    // Aviso de otro nodo: la base ya tiene el cambio confirmado
+    private void releerMateria(Long materiaId) {
+        if (!materiaRepository.existsById(materiaId)) {
+            quitarMateria(materiaId);
+        } else {
+            actualizarPrerequisitos(materiaId, materiaRepository.findPrerequisitoIds(materiaId));
+        }
+    }
+
+    /**
+     * Vuelve a leer todas las aristas por si se perdió algún aviso entre nodos.
+     * Conserva las posiciones de las materias, así las materias aprobadas
+     * cacheadas siguen siendo válidas.
+     */
+    @Scheduled(fixedDelayString = "${app.prerequisitos.relectura-ms:600000}",
+            initialDelayString = "${app.prerequisitos.relectura-ms:600000}")
+    public void releerAristas() {
+        long antes;
+        synchronized (this) {
+            if (estructura == null) {
+                return;
+            }
+            antes = modificaciones;
+        }
+        Map<Long, long[]> aristas = leerAristas();
+        synchronized (this) {
+            // Un cambio aplicado durante la consulta puede ser más nuevo que lo leído
+            if (modificaciones != antes || estructura == null) {
+                return;
+            }
+            Estructura nueva = new Estructura(new HashMap<>(estructura.posiciones), new HashMap<>(), new HashMap<>());
+            aristas.forEach(nueva::asignar);
+            estructura = nueva;
+        }
+    }
+
+    /**
+     * Descarta las materias aprobadas del estudiante cuando una inscripción
+     * entra o sale del estado APROBADA. No se corrige la copia en el lugar: si
+     * la carga estaba en curso con datos anteriores al cambio, quedaría vieja.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInscripcionEstadoCambiado(InscripcionEstadoCambiadoEvent evento) {
+        boolean aprobadaAntes = evento.getEstadoAnterior() == EstadoInscripcion.APROBADA;
+        boolean aprobadaAhora = evento.getEstadoNuevo() == EstadoInscripcion.APROBADA;
+        if (aprobadaAntes == aprobadaAhora) {
+            return;
+        }
+        aprobadasPorEstudiante.invalidate(evento.getEstudianteId());
+        canal.publicar(CANAL, String.valueOf(evento.getEstudianteId()));
+    }
+
+    private static boolean alcanzable(Map<Long, long[]> aristas, Long origen, Long destino) {
+        if (origen.equals(destino)) {
+            return true;
+        }
+        Set<Long> visitadas = new HashSet<>();
+        Deque<Long> pila = new ArrayDeque<>();
+        pila.push(origen);
+        while (!pila.isEmpty()) {
+            Long actual = pila.pop();
+            if (!visitadas.add(actual)) {
+                continue;
+            }
+            long[] siguientes = aristas.get(actual);
+            if (siguientes == null) {
+                continue;
+            }
+            for (long siguiente : siguientes) {
+                if (siguiente == destino) {
+                    return true;
+                }
+                if (!visitadas.contains(siguiente)) {
+                    pila.push(siguiente);
+                }
+            }
+        }
+        return false;
+    }
+
+    private BitSet obtenerAprobadas(Long estudianteId) {
+        // La consulta se hace dentro de la carga atómica de la caché: una
+        // invalidación concurrente del mismo estudiante espera a que termine y
+        // descarta lo cargado
+        return aprobadasPorEstudiante.get(estudianteId, id -> {
+            BitSet cargadas = new BitSet();
+            for (Long materiaId : inscripcionRepository.findMateriaIdsAprobadasByEstudiante(id)) {
+                cargadas.set(posicion(materiaId));
+            }
+            return cargadas;
+        });
+    }
+
+    private int posicion(Long materiaId) {
+        Integer posicion = obtenerEstructura().posiciones.get(materiaId);
+        if (posicion != null) {
+            return posicion;
+        }
+        synchronized (this) {
+            Estructura actual = obtenerEstructura();
+            posicion = actual.posiciones.get(materiaId);
+            if (posicion == null) {
+                Estructura nueva = actual.copiar();
+                posicion = nueva.posicion(materiaId);
+                estructura = nueva;
+            }
+            return posicion;
+        }
+    }
+
+    private Estructura obtenerEstructura() {
+        Estructura actual = estructura;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (this) {
+            if (estructura == null) {
+                Estructura cargada = new Estructura(new HashMap<>(), new HashMap<>(), new HashMap<>());
+                leerAristas().forEach(cargada::asignar);
+                estructura = cargada;
+            }
+            return estructura;
+        }
+    }
+
+    private Map<Long, long[]> leerAristas() {
+        Map<Long, List<Long>> aristas = new HashMap<>();
+        for (Object[] fila : materiaRepository.findAllPrerequisitos()) {
+            Long materiaId = ((Number) fila[0]).longValue();
+            Long prerequisitoId = ((Number) fila[1]).longValue();
+            aristas.computeIfAbsent(materiaId, k -> new ArrayList<>()).add(prerequisitoId);
+        }
+        Map<Long, long[]> resultado = new HashMap<>();
+        aristas.forEach((materiaId, prerequisitos) -> resultado.put(materiaId,
+                prerequisitos.stream().mapToLong(Long::longValue).distinct().toArray()));
+        return resultado;
+    }
+
+    private static final class Visita {
+        private final Long materiaId;
+        private final Iterator<Long> prerequisitos;
+
+        private Visita(Long materiaId, Iterator<Long> prerequisitos) {
+            this.materiaId = materiaId;
+            this.prerequisitos = prerequisitos;
+        }
+    }
+
+    private static final class Estructura {
+        private final Map<Long, Integer> posiciones;
+        private final Map<Long, long[]> prerequisitos;
+        private final Map<Long, BitSet> requeridos;
+
+        private Estructura(Map<Long, Integer> posiciones, Map<Long, long[]> prerequisitos,
+                Map<Long, BitSet> requeridos) {
+            this.posiciones = posiciones;
+            this.prerequisitos = prerequisitos;
+            this.requeridos = requeridos;
+        }
+
+        private Estructura copiar() {
+            return new Estructura(new HashMap<>(posiciones), new HashMap<>(prerequisitos),
+                    new HashMap<>(requeridos));
+        }
+
+        private int posicion(Long materiaId) {
+            return posiciones.computeIfAbsent(materiaId, id -> posiciones.size());
+        }
+
+        private void asignar(Long materiaId, long[] ids) {
+            posicion(materiaId);
+            BitSet bits = new BitSet();
+            for (long id : ids) {
+                bits.set(posicion(id));
+            }
+            prerequisitos.put(materiaId, ids);
+            requeridos.put(materiaId, bits);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.universidad.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list indexada ordenada por puntaje descendente (y por ID ascendente en
+ * caso de empate). Cada enlace guarda cuántos nodos salta, así que además de
+ * insertar y eliminar se puede obtener la posición de un elemento y el elemento
+ * de una posición en tiempo logarítmico, igual que un sorted set de Redis.
+ *
+ * No es segura para hilos: quien la usa debe sincronizar los accesos.
+ */
+final class ListaSaltos {
+
+    private static final int NIVEL_MAXIMO = 32;
+    private static final double PROBABILIDAD = 0.25;
+
+    private final Nodo cabeza = new Nodo(0, 0, NIVEL_MAXIMO);
+    private int nivel = 1;
+    private int tamano;
+
+    int tamano() {
+        return tamano;
+    }
+
+    void insertar(long id, double puntaje) {
+        Nodo[] anteriores = new Nodo[NIVEL_MAXIMO];
+        int[] recorrido = new int[NIVEL_MAXIMO];
+        Nodo x = cabeza;
+        for (int i = nivel - 1; i >= 0; i--) {
+            recorrido[i] = i == nivel - 1 ? 0 : recorrido[i + 1];
+            while (x.siguiente[i] != null && x.siguiente[i].antesDe(id, puntaje)) {
+                recorrido[i] += x.salto[i];
+                x = x.siguiente[i];
+            }
+            anteriores[i] = x;
+        }
+
+        int nivelNodo = nivelAleatorio();
+        if (nivelNodo > nivel) {
+            for (int i = nivel; i < nivelNodo; i++) {
+                recorrido[i] = 0;
+                anteriores[i] = cabeza;
+                cabeza.salto[i] = tamano;
+            }
+            nivel = nivelNodo;
+        }
+
+        Nodo nuevo = new Nodo(id, puntaje, nivelNodo);
+        for (int i = 0; i < nivelNodo; i++) {
+            nuevo.siguiente[i] = anteriores[i].siguiente[i];
+            anteriores[i].siguiente[i] = nuevo;
+            nuevo.salto[i] = anteriores[i].salto[i] - (recorrido[0] - recorrido[i]);
+            anteriores[i].salto[i] = (recorrido[0] - recorrido[i]) + 1;
+        }
+        for (int i = nivelNodo; i < nivel; i++) {
+            anteriores[i].salto[i]++;
+        }
+        tamano++;
+    }
+
+    /**
+     * Elimina el elemento con ese ID y puntaje.
+     * @return false si no estaba en la lista
+     */
+    boolean eliminar(long id, double puntaje) {
+        Nodo[] anteriores = new Nodo[NIVEL_MAXIMO];
+        Nodo x = cabeza;
+        for (int i = nivel - 1; i >= 0; i--) {
+            while (x.siguiente[i] != null && x.siguiente[i].antesDe(id, puntaje)) {
+                x = x.siguiente[i];
+            }
+            anteriores[i] = x;
+        }
+        x = x.siguiente[0];
+        if (x == null || !x.es(id, puntaje)) {
+            return false;
+        }
+        for (int i = 0; i < nivel; i++) {
+            if (anteriores[i].siguiente[i] == x) {
+                anteriores[i].salto[i] += x.salto[i] - 1;
+                anteriores[i].siguiente[i] = x.siguiente[i];
+            } else {
+                anteriores[i].salto[i]--;
+            }
+        }
+        while (nivel > 1 && cabeza.siguiente[nivel - 1] == null) {
+            nivel--;
+        }
+        tamano--;
+        return true;
+    }
+
+    /**
+     * Posición (desde 1) del elemento con ese ID y puntaje, o 0 si no está.
+     */
+    int posicion(long id, double puntaje) {
+        Nodo x = cabeza;
+        int recorrido = 0;
+        for (int i = nivel - 1; i >= 0; i--) {
+            while (x.siguiente[i] != null
+                    && (x.siguiente[i].antesDe(id, puntaje) || x.siguiente[i].es(id, puntaje))) {
+                recorrido += x.salto[i];
+                x = x.siguiente[i];
+            }
+            if (x != cabeza && x.es(id, puntaje)) {
+                return recorrido;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Hasta {@code cantidad} elementos a partir de la posición {@code desde}
+     * (desde 1), en orden.
+     */
+    List<Nodo> rango(int desde, int cantidad) {
+        List<Nodo> resultado = new ArrayList<>(Math.max(0, Math.min(cantidad, tamano - desde + 1)));
+        if (desde < 1 || desde > tamano || cantidad <= 0) {
+            return resultado;
+        }
+        Nodo x = cabeza;
+        int recorrido = 0;
+        for (int i = nivel - 1; i >= 0 && recorrido < desde; i--) {
+            while (x.siguiente[i] != null && recorrido + x.salto[i] <= desde) {
+                recorrido += x.salto[i];
+                x = x.siguiente[i];
+            }
+        }
+        while (x != null && resultado.size() < cantidad) {
+            resultado.add(x);
+            x = x.siguiente[0];
+        }
+        return resultado;
+    }
+
+    private int nivelAleatorio() {
+        int nivelNodo = 1;
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        while (nivelNodo < NIVEL_MAXIMO && aleatorio.nextDouble() < PROBABILIDAD) {
+            nivelNodo++;
+        }
+        return nivelNodo;
+    }
+
+    static final class Nodo {
+        final long id;
+        final double puntaje;
+        private final Nodo[] siguiente;
+        private final int[] salto;
+
+        private Nodo(long id, double puntaje, int nivel) {
+            this.id = id;
+            this.puntaje = puntaje;
+            this.siguiente = new Nodo[nivel];
+            this.salto = new int[nivel];
+        }
+
+        private boolean antesDe(long otroId, double otroPuntaje) {
+            return puntaje > otroPuntaje || (puntaje == otroPuntaje && id < otroId);
+        }
+
+        private boolean es(long otroId, double otroPuntaje) {
+            return id == otroId && puntaje == otroPuntaje;
+        }
+    }
+}
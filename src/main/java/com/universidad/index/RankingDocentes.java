@@ -0,0 +1,226 @@
+package com.universidad.index;
+
+import com.universidad.dto.PosicionDocenteDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking de docentes por promedio de evaluaciones, general y por
+ * departamento, sobre skip lists indexadas ({@link ListaSaltos}).
+ *
+ * Lo actualiza {@link EstadisticasEvaluaciones} cada vez que cambia el
+ * promedio de un docente y se reconstruye junto con las estadísticas. Las
+ * páginas del ranking y la posición de un docente se resuelven en tiempo
+ * logarítmico, sin ordenar a todos los docentes en cada consulta.
+ */
+@Component
+public class RankingDocentes {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingDocentes.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ListaSaltos general = new ListaSaltos();
+    private Map<String, ListaSaltos> porDepartamento = new HashMap<>();
+    private Map<Long, Entrada> docentes = new HashMap<>();
+
+    /**
+     * Registra el nuevo promedio del docente; con null lo quita del ranking.
+     */
+    public void actualizar(Long docenteId, Double promedio) {
+        if (promedio == null) {
+            quitar(docenteId);
+            return;
+        }
+        String departamento = departamentoRegistrado(docenteId);
+        if (departamento == null) {
+            departamento = buscarDepartamento(docenteId);
+        }
+        lock.writeLock().lock();
+        try {
+            Entrada entrada = docentes.get(docenteId);
+            if (entrada != null) {
+                quitarDeListas(docenteId, entrada);
+            } else {
+                entrada = new Entrada(departamento);
+                docentes.put(docenteId, entrada);
+            }
+            entrada.promedio = promedio;
+            agregarEnListas(docenteId, entrada);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mueve al docente al ranking de su nuevo departamento.
+     */
+    public void cambiarDepartamento(Long docenteId, String departamento) {
+        lock.writeLock().lock();
+        try {
+            Entrada entrada = docentes.get(docenteId);
+            if (entrada == null || Objects.equals(entrada.departamento, departamento)) {
+                return;
+            }
+            quitarDeListas(docenteId, entrada);
+            entrada.departamento = departamento;
+            agregarEnListas(docenteId, entrada);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void quitar(Long docenteId) {
+        lock.writeLock().lock();
+        try {
+            Entrada entrada = docentes.remove(docenteId);
+            if (entrada != null) {
+                quitarDeListas(docenteId, entrada);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza el ranking completo a partir de los promedios por docente.
+     */
+    public void reconstruir(Map<Long, Double> promedios) {
+        long inicio = System.currentTimeMillis();
+        Map<Long, String> departamentos = new HashMap<>();
+        jdbcTemplate.query("SELECT id_persona, departamento FROM docente",
+                rs -> {
+                    departamentos.put(rs.getLong(1), rs.getString(2));
+                });
+
+        ListaSaltos nuevoGeneral = new ListaSaltos();
+        Map<String, ListaSaltos> nuevoPorDepartamento = new HashMap<>();
+        Map<Long, Entrada> nuevosDocentes = new HashMap<>();
+        promedios.forEach((docenteId, promedio) -> {
+            if (promedio == null) {
+                return;
+            }
+            Entrada entrada = new Entrada(departamentos.get(docenteId));
+            entrada.promedio = promedio;
+            nuevosDocentes.put(docenteId, entrada);
+            nuevoGeneral.insertar(docenteId, promedio);
+            if (entrada.departamento != null) {
+                nuevoPorDepartamento.computeIfAbsent(entrada.departamento, d -> new ListaSaltos())
+                        .insertar(docenteId, promedio);
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            general = nuevoGeneral;
+            porDepartamento = nuevoPorDepartamento;
+            docentes = nuevosDocentes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long fin = System.currentTimeMillis();
+        logger.info("[EVALUACION] Ranking de docentes reconstruido: {} docentes en {} departamentos (Duracion: {} ms)",
+                nuevosDocentes.size(), nuevoPorDepartamento.size(), (fin - inicio));
+    }
+
+    /**
+     * Página del ranking, general o de un departamento si se indica.
+     */
+    public List<PosicionDocenteDTO> obtenerPagina(String departamento, int pagina, int tamano) {
+        lock.readLock().lock();
+        try {
+            ListaSaltos lista = departamento == null ? general : porDepartamento.get(departamento);
+            List<PosicionDocenteDTO> resultado = new ArrayList<>();
+            if (lista == null) {
+                return resultado;
+            }
+            for (ListaSaltos.Nodo nodo : lista.rango(pagina * tamano + 1, tamano)) {
+                resultado.add(toDTO(nodo.id, docentes.get(nodo.id)));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posición del docente, o null si no tiene evaluaciones.
+     */
+    public PosicionDocenteDTO obtenerPosicion(Long docenteId) {
+        lock.readLock().lock();
+        try {
+            Entrada entrada = docentes.get(docenteId);
+            return entrada != null ? toDTO(docenteId, entrada) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PosicionDocenteDTO toDTO(Long docenteId, Entrada entrada) {
+        ListaSaltos lista = entrada.departamento != null ? porDepartamento.get(entrada.departamento) : null;
+        return PosicionDocenteDTO.builder()
+                .docenteId(docenteId)
+                .departamento(entrada.departamento)
+                .promedio(entrada.promedio)
+                .posicion(general.posicion(docenteId, entrada.promedio))
+                .posicionDepartamento(lista != null ? lista.posicion(docenteId, entrada.promedio) : null)
+                .build();
+    }
+
+    private void agregarEnListas(Long docenteId, Entrada entrada) {
+        general.insertar(docenteId, entrada.promedio);
+        if (entrada.departamento != null) {
+            porDepartamento.computeIfAbsent(entrada.departamento, d -> new ListaSaltos())
+                    .insertar(docenteId, entrada.promedio);
+        }
+    }
+
+    private void quitarDeListas(Long docenteId, Entrada entrada) {
+        general.eliminar(docenteId, entrada.promedio);
+        ListaSaltos lista = entrada.departamento != null ? porDepartamento.get(entrada.departamento) : null;
+        if (lista != null) {
+            lista.eliminar(docenteId, entrada.promedio);
+            if (lista.tamano() == 0) {
+                porDepartamento.remove(entrada.departamento);
+            }
+        }
+    }
+
+    private String departamentoRegistrado(Long docenteId) {
+        lock.readLock().lock();
+        try {
+            Entrada entrada = docentes.get(docenteId);
+            return entrada != null ? entrada.departamento : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String buscarDepartamento(Long docenteId) {
+        List<String> departamentos = jdbcTemplate.queryForList(
+                "SELECT departamento FROM docente WHERE id_persona = ?", String.class, docenteId);
+        return departamentos.isEmpty() ? null : departamentos.get(0);
+    }
+
+    private static final class Entrada {
+        private String departamento;
+        private double promedio;
+
+        private Entrada(String departamento) {
+            this.departamento = departamento;
+        }
+    }
+}
@@ -22,4 +22,11 @@ public class EvaluacionDocente {
     private Integer puntuacion;
     private String comentario;
     private java.time.LocalDate fecha;
+
+    /**
+     * Clave única de las evaluaciones recibidas por la ingesta diferida; evita
+     * duplicarlas al reprocesar el diario.
+     */
+    @Column(name = "clave_ingesta", unique = true, length = 36)
+    private String claveIngesta;
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.universidad.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "lista_espera", indexes = @Index(name = "idx_lista_espera_materia_estado", columnList = "materia_id, estado"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Turno de un estudiante en la lista de espera FIFO de una materia sin cupo
+public class ListaEspera implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "estudiante_id", nullable = false)
+    @NotNull
+    private Estudiante estudiante;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "materia_id", nullable = false)
+    @NotNull
+    private Materia materia;
+
+    @Column(name = "fecha_solicitud", nullable = false)
+    private LocalDateTime fechaSolicitud;
+
+    @Column(name = "estado", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private EstadoListaEspera estado;
+
+    // Motivo por el que el turno fue descartado al intentar promoverlo
+    @Column(name = "motivo")
+    private String motivo;
+
+    public enum EstadoListaEspera {
+        PENDIENTE,
+        PROMOVIDA,
+        DESCARTADA,
+        CANCELADA
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        fechaSolicitud = LocalDateTime.now();
+        if (estado == null) {
+            estado = EstadoListaEspera.PENDIENTE;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.HashSet;
 import java.util.Set;
@@ -72,6 +73,29 @@ public class Materia implements Serializable {
     @Column(name = "activa", nullable = false)
     private boolean activa = true;
 
+    /**
+     * Cantidad de inscripciones ACTIVAS de la materia. Es un contador
+     * desnormalizado que se mantiene con actualizaciones atómicas desde
+     * InscripcionServiceImpl y se reconcilia periódicamente contra la tabla de
+     * inscripciones.
+     */
+    @Column(name = "cupo_ocupado", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer cupoOcupado = 0;
+
+    /**
+     * Forma de asignar los cupos: por orden de llegada o por sorteo. En modo
+     * SORTEO las solicitudes se juntan hasta {@link #cierreSorteo} y un proceso
+     * por lotes asigna los cupos de una vez.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "modo_asignacion", nullable = false, length = 20, columnDefinition = "varchar(20) default 'ORDEN_LLEGADA'")
+    @Builder.Default
+    private ModoAsignacion modoAsignacion = ModoAsignacion.ORDEN_LLEGADA;
+
+    @Column(name = "cierre_sorteo")
+    private LocalDateTime cierreSorteo;
+
     @Version // Anotación para manejar la versión de la entidad
     private Long version; // Campo para manejar la versión de la entidad, útil para el control de
                           // concurrencia
@@ -109,56 +133,26 @@ public class Materia implements Serializable {
         if (cupoMaximo == null) {
             cupoMaximo = 30; // Valor por defecto
         }
+        if (cupoOcupado == null) {
+            cupoOcupado = 0;
+        }
+        if (modoAsignacion == null) {
+            modoAsignacion = ModoAsignacion.ORDEN_LLEGADA;
+        }
     }
 
-    public boolean tieneCupoDisponible() {
-        long inscripcionesActivas = inscripciones.stream()
-                .filter(i -> i.getEstado() == Inscripcion.EstadoInscripcion.ACTIVA)
-                .count();
-        return inscripcionesActivas < cupoMaximo;
+    public enum ModoAsignacion {
+        ORDEN_LLEGADA,
+        SORTEO
     }
 
     /**
-     * Verifica si agregar la materia con el ID dado como prerequisito formaría un
-     * ciclo.
-     * 
-     * @param prerequisitoId ID de la materia candidata a prerequisito
-     * @return true si se formaría un ciclo, false en caso contrario
+     * Indica si la materia tiene cupo según el contador de cupos ocupados, sin
+     * recorrer la colección de inscripciones.
      */
-    public boolean formariaCirculo(Long prerequisitoId) {
-        return formariaCirculoRecursivo(this.getId(), prerequisitoId, new java.util.HashSet<>());
-    }
-
-    // Método auxiliar recursivo para detectar ciclos
-    private boolean formariaCirculoRecursivo(Long objetivoId, Long actualId, java.util.Set<Long> visitados) {
-        if (objetivoId == null || actualId == null)
-            return false;
-        if (objetivoId.equals(actualId))
-            return true;
-        if (!visitados.add(actualId))
-            return false;
-        if (this.getPrerequisitos() == null)
-            return false;
-        for (Materia prereq : this.getPrerequisitos()) { // Itera sobre los prerequisitos de la materia
-            if (prereq != null && prereq.getId() != null && prereq.getId().equals(actualId)) { // Verifica si el
-                                                                                               // prerequisito actual es
-                                                                                               // el objetivo
-                if (prereq.getPrerequisitos() != null) { // Verifica si tiene prerequisitos
-                    // Si el prerequisito tiene prerequisitos, verifica recursivamente si alguno de
-                    // ellos forma un ciclo
-                    for (Materia subPrereq : prereq.getPrerequisitos()) { // Itera sobre los prerequisitos del
-                                                                          // prerequisito actual
-                        if (formariaCirculoRecursivo(objetivoId, subPrereq.getId(), visitados)) { // Llama
-                                                                                                  // recursivamente al
-                                                                                                  // método
-                            // Si se encuentra un ciclo, retorna true
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        return false;
+    public boolean tieneCupoDisponible() {
+        int ocupados = cupoOcupado != null ? cupoOcupado : 0;
+        return ocupados < cupoMaximo;
     }
 
     public Docente getDocente() {
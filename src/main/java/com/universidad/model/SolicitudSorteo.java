@@ -0,0 +1,66 @@
+package com.universidad.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "solicitud_sorteo",
+        uniqueConstraints = @UniqueConstraint(name = "uk_solicitud_sorteo_estudiante_materia", columnNames = { "estudiante_id", "materia_id" }),
+        indexes = @Index(name = "idx_solicitud_sorteo_materia_estado", columnList = "materia_id, estado"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Solicitud de un estudiante para participar del sorteo de cupos de una materia
+public class SolicitudSorteo implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "estudiante_id", nullable = false)
+    @NotNull
+    private Estudiante estudiante;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "materia_id", nullable = false)
+    @NotNull
+    private Materia materia;
+
+    // Peso de prioridad en el sorteo; con peso 2 la probabilidad de salir antes
+    // que alguien con peso 1 es el doble
+    @Column(name = "peso", nullable = false)
+    private Double peso;
+
+    @Column(name = "fecha_solicitud", nullable = false)
+    private LocalDateTime fechaSolicitud;
+
+    @Column(name = "estado", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private EstadoSolicitudSorteo estado;
+
+    public enum EstadoSolicitudSorteo {
+        PENDIENTE,
+        ASIGNADA,
+        NO_ASIGNADA,
+        RECHAZADA
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        fechaSolicitud = LocalDateTime.now();
+        if (estado == null) {
+            estado = EstadoSolicitudSorteo.PENDIENTE;
+        }
+        if (peso == null) {
+            peso = 1.0;
+        }
+    }
+}
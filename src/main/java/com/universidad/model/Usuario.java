@@ -43,6 +43,10 @@ public class Usuario {
 
     private boolean activo = true;
 
+    // Epoch en milisegundos: los tokens emitidos hasta ese momento quedan revocados
+    @Column(name = "tokens_validos_desde")
+    private Long tokensValidosDesde;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "usuario_roles", joinColumns = @JoinColumn(name = "usuario_id"), inverseJoinColumns = @JoinColumn(name = "rol_id"))
     private Set<Rol> roles = new HashSet<>();
@@ -0,0 +1,13 @@
+package com.universidad.repository;
+
+/**
+ * Proyección con lo necesario para decidir si los tokens de un usuario siguen
+ * valiendo, obtenida por {@link UsuarioRepository#findEstadoSesion(String)}.
+ */
+public interface EstadoSesionUsuario {
+
+    boolean getActivo();
+
+    /** Epoch en milisegundos; null si nunca se revocaron sus tokens. */
+    Long getTokensValidosDesde();
+}
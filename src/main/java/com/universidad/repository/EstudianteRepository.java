@@ -1,10 +1,14 @@
 package com.universidad.repository; // Define el paquete al que pertenece esta clase
 
 import com.universidad.model.Estudiante; // Importa la clase Estudiante del paquete model
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository; // Importa la anotación Repository de Spring
 import org.springframework.data.jpa.repository.Lock;
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository // Anotación que indica que esta clase es un repositorio de Spring
@@ -20,6 +24,10 @@ public interface EstudianteRepository extends JpaRepository<Estudiante, Long> {
     // Método para encontrar un estudiante por su número de inscripción
     Estudiante findByNumeroInscripcion(String numeroInscripcion);
 
+    // Números de inscripción de los estudiantes activos, para precargar la caché
+    @Query("SELECT e.numeroInscripcion FROM Estudiante e WHERE LOWER(e.estado) = 'activo' ORDER BY e.id")
+    List<String> findNumerosInscripcionActivos(Pageable pageable);
+
     // Método para encontrar un estudiante por su estado
     Estudiante findByEstado(String estado); // Método para encontrar un estudiante por su estado
 
@@ -31,4 +39,16 @@ public interface EstudianteRepository extends JpaRepository<Estudiante, Long> {
     // Método sin lock para lecturas normales
     Optional<Estudiante> findEstudianteById(Long id);
 
+    // IDs de los estudiantes activos entre los indicados (mismo criterio que Estudiante.isActivo)
+    @Query("SELECT e.id FROM Estudiante e WHERE e.id IN ?1 AND UPPER(e.estado) = 'ACTIVO' AND e.fechaBaja IS NULL")
+    List<Long> findIdsActivos(Collection<Long> ids);
+
+    // Fecha de alta y créditos aprobados del estudiante, para ubicarlo en su
+    // ventana de inscripción; lista vacía si no existe
+    @Query(value = "SELECT e.fecha_alta, COALESCE((SELECT SUM(m.creditos) FROM inscripciones i "
+            + "JOIN materia m ON m.id_materia = i.materia_id "
+            + "WHERE i.estudiante_id = e.id_persona AND i.estado = 'APROBADA'), 0) "
+            + "FROM estudiante e WHERE e.id_persona = ?1", nativeQuery = true)
+    List<Object[]> findPerfilAdmision(Long id);
+
 }
\ No newline at end of file
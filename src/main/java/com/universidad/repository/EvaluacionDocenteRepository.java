@@ -3,8 +3,15 @@ package com.universidad.repository;
 import com.universidad.model.EvaluacionDocente;
 import com.universidad.model.Docente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface EvaluacionDocenteRepository extends JpaRepository<EvaluacionDocente, Long> {
     List<EvaluacionDocente> findByDocente(Docente docente);
+
+    // Devuelve las filas borradas: 0 si otro pedido ya la eliminó
+    @Modifying
+    @Query("DELETE FROM EvaluacionDocente e WHERE e.id = ?1")
+    int eliminarPorId(Long id);
 }
@@ -2,7 +2,9 @@ package com.universidad.repository;
 
 import com.universidad.model.Inscripcion;
 import com.universidad.model.Inscripcion.EstadoInscripcion;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -24,5 +26,41 @@ public interface InscripcionRepository extends JpaRepository<Inscripcion, Long>
     @Query("SELECT COUNT(i) FROM Inscripcion i WHERE i.materia.id = ?1 AND i.estado = 'ACTIVA'")
     Long countInscripcionesActivasByMateria(Long materiaId);
 
+    // Bloqueo pesimista: dos cambios de estado concurrentes de la misma
+    // inscripción no pueden liberar u ocupar su cupo dos veces
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inscripcion i WHERE i.id = ?1")
+    Optional<Inscripcion> findByIdParaActualizar(Long id);
+
+    @Query("SELECT i.materia.id FROM Inscripcion i WHERE i.estudiante.id = ?1 AND i.estado = 'APROBADA'")
+    List<Long> findMateriaIdsAprobadasByEstudiante(Long estudianteId);
+
+    // Tuplas (id, estado, nota, créditos de la materia) para el resumen académico del estudiante
+    @Query("SELECT i.id, i.estado, i.nota, i.materia.creditos FROM Inscripcion i WHERE i.estudiante.id = ?1")
+    List<Object[]> findResumenByEstudiante(Long estudianteId);
+
+    // Tuplas (id, estudianteId, estado, nota) de las inscripciones vigentes de la materia
+    @Query("SELECT i.id, i.estudiante.id, i.estado, i.nota FROM Inscripcion i WHERE i.materia.id = ?1 AND i.estado <> 'CANCELADA' ORDER BY i.id")
+    List<Object[]> findNotasByMateria(Long materiaId);
+
+    @Query("SELECT i.estudiante.id FROM Inscripcion i WHERE i.materia.id = ?1 AND i.estado = 'ACTIVA'")
+    List<Long> findEstudianteIdsActivosByMateria(Long materiaId);
+
     boolean existsByEstudianteIdAndMateriaIdAndEstado(Long estudianteId, Long materiaId, EstadoInscripcion estado);
-}
\ No newline at end of file
+
+    // Estado del estudiante, de la materia y de una inscripción activa previa en
+    // un solo viaje a la base; la fila base garantiza un resultado aunque no existan
+    @Query(value = "SELECT e.id_persona IS NOT NULL AS estudianteExiste, "
+            + "COALESCE(UPPER(e.estado) = 'ACTIVO' AND e.fecha_baja IS NULL, false) AS estudianteActivo, "
+            + "m.id_materia IS NOT NULL AS materiaExiste, "
+            + "COALESCE(m.activa, false) AS materiaActiva, "
+            + "m.cupo_ocupado AS cupoOcupado, "
+            + "m.cupo_maximo AS cupoMaximo, "
+            + "m.modo_asignacion AS modoAsignacion, "
+            + "EXISTS (SELECT 1 FROM inscripciones i WHERE i.estudiante_id = ?1 AND i.materia_id = ?2 "
+            + "AND i.estado = 'ACTIVA') AS yaInscrito "
+            + "FROM (SELECT 1) AS base "
+            + "LEFT JOIN estudiante e ON e.id_persona = ?1 "
+            + "LEFT JOIN materia m ON m.id_materia = ?2", nativeQuery = true)
+    PrecheckInscripcion precheckInscripcion(Long estudianteId, Long materiaId);
+}
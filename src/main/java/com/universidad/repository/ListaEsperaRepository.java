@@ -0,0 +1,35 @@
+package com.universidad.repository;
+
+import com.universidad.model.ListaEspera;
+import com.universidad.model.ListaEspera.EstadoListaEspera;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ListaEsperaRepository extends JpaRepository<ListaEspera, Long> {
+
+    // Primer turno pendiente de la materia, bloqueado hasta el fin de la
+    // transacción. SKIP LOCKED hace que dos nodos que promueven a la vez tomen
+    // turnos distintos en lugar de esperarse
+    @Query(value = "SELECT * FROM lista_espera WHERE materia_id = ?1 AND estado = 'PENDIENTE' "
+            + "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ListaEspera> findSiguientePendienteParaPromover(Long materiaId);
+
+    // Posición del turno: pendientes de la materia que llegaron antes o con él
+    @Query("SELECT COUNT(l) FROM ListaEspera l WHERE l.materia.id = ?1 AND l.estado = 'PENDIENTE' AND l.id <= ?2")
+    long countPendientesHasta(Long materiaId, Long turnoId);
+
+    Optional<ListaEspera> findByEstudianteIdAndMateriaIdAndEstado(Long estudianteId, Long materiaId,
+            EstadoListaEspera estado);
+
+    // Bloqueo pesimista: una cancelación no pisa el estado de un turno que se
+    // está promoviendo en ese momento
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM ListaEspera l WHERE l.estudiante.id = ?1 AND l.materia.id = ?2 AND l.estado = 'PENDIENTE'")
+    Optional<ListaEspera> findPendienteParaActualizar(Long estudianteId, Long materiaId);
+}
@@ -2,9 +2,13 @@ package com.universidad.repository;
 
 import com.universidad.model.Materia;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Lock;
 import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +23,58 @@ public interface MateriaRepository extends JpaRepository<Materia, Long> {
     Optional<Materia> findMateriaById(Long id);
 
     List<Materia> findByDocenteId(Long docenteId);
+
+    @Query("SELECT m.id FROM Materia m")
+    List<Long> findAllIds();
+
+    @Query("SELECT m.creditos FROM Materia m WHERE m.id = ?1")
+    Optional<Integer> findCreditosById(Long id);
+
+    // Materias en modo sorteo cuya ventana de solicitudes ya cerró
+    @Query("SELECT m.id FROM Materia m WHERE m.modoAsignacion = 'SORTEO' AND m.cierreSorteo <= ?1")
+    List<Long> findIdsConSorteoVencido(LocalDateTime ahora);
+
+    // Pares (id_materia, id_prerequisito) para construir el grafo en memoria
+    @Query(value = "SELECT mp.id_materia, mp.id_prerequisito FROM materia_prerequisito mp", nativeQuery = true)
+    List<Object[]> findAllPrerequisitos();
+
+    // Prerequisitos directos tal como están en la base, sin pasar por el grafo en memoria
+    @Query(value = "SELECT mp.id_prerequisito FROM materia_prerequisito mp WHERE mp.id_materia = ?1", nativeQuery = true)
+    List<Long> findPrerequisitoIds(Long materiaId);
+
+    long countByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO materia_prerequisito (id_materia, id_prerequisito) VALUES (?1, ?2)", nativeQuery = true)
+    int insertarPrerequisito(Long materiaId, Long prerequisitoId);
+
+    @Modifying
+    @Query(value = "DELETE FROM materia_prerequisito WHERE id_materia = ?1 AND id_prerequisito IN (?2)", nativeQuery = true)
+    int eliminarPrerequisitos(Long materiaId, Collection<Long> prerequisitoIds);
+
+    // Ocupa un cupo solo si todavía queda lugar sin contar los cupos retenidos por
+    // reservas de otros estudiantes; devuelve 0 si la materia está llena
+    @Modifying
+    @Query("UPDATE Materia m SET m.cupoOcupado = m.cupoOcupado + 1 WHERE m.id = ?1 AND m.cupoOcupado + ?2 < m.cupoMaximo")
+    int ocuparCupo(Long materiaId, int reservados);
+
+    // Libera un cupo sin dejar el contador en negativo
+    @Modifying
+    @Query("UPDATE Materia m SET m.cupoOcupado = m.cupoOcupado - 1 WHERE m.id = ?1 AND m.cupoOcupado > 0")
+    int liberarCupo(Long materiaId);
+
+    // Libera varios cupos de una vez, sin dejar el contador en negativo
+    @Modifying
+    @Query("UPDATE Materia m SET m.cupoOcupado = CASE WHEN m.cupoOcupado > ?2 THEN m.cupoOcupado - ?2 ELSE 0 END WHERE m.id = ?1")
+    int liberarCupos(Long materiaId, int cantidad);
+
+    // Bloquea la fila como lo hacen ocuparCupo y liberarCupo (NO KEY UPDATE), sin
+    // frenar las inserciones de inscripciones que solo necesitan la clave
+    @Query(value = "SELECT m.id_materia FROM materia m WHERE m.id_materia = ?1 FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<Long> bloquearParaReconciliar(Long id);
+
+    // Usado por la reconciliación para fijar el valor real del contador
+    @Modifying
+    @Query("UPDATE Materia m SET m.cupoOcupado = ?2 WHERE m.id = ?1 AND m.cupoOcupado <> ?2")
+    int actualizarCupoOcupado(Long materiaId, int cupoOcupado);
 }
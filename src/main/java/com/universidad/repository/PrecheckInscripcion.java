@@ -0,0 +1,24 @@
+package com.universidad.repository;
+
+/**
+ * Proyección con todo lo necesario para validar una nueva inscripción,
+ * obtenida en una sola consulta por {@link InscripcionRepository#precheckInscripcion(Long, Long)}.
+ */
+public interface PrecheckInscripcion {
+
+    boolean getEstudianteExiste();
+
+    boolean getEstudianteActivo();
+
+    boolean getMateriaExiste();
+
+    boolean getMateriaActiva();
+
+    Integer getCupoOcupado();
+
+    Integer getCupoMaximo();
+
+    String getModoAsignacion();
+
+    boolean getYaInscrito();
+}
@@ -0,0 +1,35 @@
+package com.universidad.repository;
+
+import com.universidad.model.SolicitudSorteo;
+import com.universidad.model.SolicitudSorteo.EstadoSolicitudSorteo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SolicitudSorteoRepository extends JpaRepository<SolicitudSorteo, Long> {
+
+    // Tuplas (id, estudianteId, peso) de las solicitudes pendientes de la materia
+    @Query("SELECT s.id, s.estudiante.id, s.peso FROM SolicitudSorteo s WHERE s.materia.id = ?1 AND s.estado = 'PENDIENTE'")
+    List<Object[]> findPendientesByMateria(Long materiaId);
+
+    Optional<SolicitudSorteo> findByEstudianteIdAndMateriaId(Long estudianteId, Long materiaId);
+
+    // Inserta la solicitud pendiente salvo que el estudiante ya tenga una en la
+    // materia (uk_solicitud_sorteo_estudiante_materia); devuelve 0 en ese caso
+    @Modifying
+    @Query(value = "INSERT INTO solicitud_sorteo (estudiante_id, materia_id, peso, fecha_solicitud, estado) "
+            + "VALUES (?1, ?2, 1.0, ?3, 'PENDIENTE') ON CONFLICT (estudiante_id, materia_id) DO NOTHING",
+            nativeQuery = true)
+    int insertarSiNoExiste(Long estudianteId, Long materiaId, LocalDateTime fechaSolicitud);
+
+    @Modifying
+    @Query("UPDATE SolicitudSorteo s SET s.estado = ?2 WHERE s.id IN ?1")
+    int actualizarEstado(Collection<Long> ids, EstadoSolicitudSorteo estado);
+}
@@ -1,9 +1,12 @@
 package com.universidad.repository;
 
+import com.universidad.model.Rol.NombreRol;
 import com.universidad.model.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +16,13 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    // Sin cargar la entidad ni los roles: solo las columnas que revisa CachePrincipales
+    @Query("SELECT u.activo AS activo, u.tokensValidosDesde AS tokensValidosDesde "
+            + "FROM Usuario u WHERE u.username = ?1")
+    Optional<EstadoSesionUsuario> findEstadoSesion(String username);
+
+    // Vacía si el usuario no existe o está inactivo
+    @Query("SELECT r.nombre FROM Usuario u JOIN u.roles r WHERE u.username = ?1 AND u.activo = true")
+    List<NombreRol> findNombresRolesSiActivo(String username);
 }
\ No newline at end of file
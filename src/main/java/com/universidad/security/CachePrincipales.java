@@ -0,0 +1,160 @@
+package com.universidad.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.universidad.cache.CanalInvalidacion;
+import com.universidad.event.UsuarioCambiadoEvent;
+import com.universidad.repository.UsuarioRepository;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Usuarios autenticados sin consultar la base en cada pedido. Si el token trae
+ * los roles (claim {@link JwtTokenProvider#CLAIM_ROLES}) el usuario se arma
+ * desde el token; los tokens emitidos antes de ese claim se resuelven con
+ * {@link CustomUserDetailsService} y se guardan unos minutos.
+ *
+ * Cuando un usuario se desactiva o cambian sus roles se revocan los tokens
+ * emitidos hasta ese momento: tiene que volver a iniciar sesión. La marca
+ * (Usuario.tokensValidosDesde) se persiste en la base, así la revocación
+ * sobrevive a reinicios y vale en los nodos nuevos. Cada nodo guarda el estado
+ * de sesión unos minutos; el aviso por el {@link CanalInvalidacion} de las
+ * cachés lo descarta enseguida y, si el mensaje se pierde, vence con el TTL.
+ */
+@Component
+@Slf4j
+public class CachePrincipales {
+
+    // Nombre con el que viajan las invalidaciones por el canal de cachés
+    static final String CANAL = "principales";
+
+    private final CustomUserDetailsService userDetailsService;
+    private final UsuarioRepository usuarioRepository;
+    private final CanalInvalidacion canal;
+    private final Cache<String, UserDetails> principales;
+    // Si el usuario está activo y desde cuándo se aceptan sus tokens, leído de la base
+    private final Cache<String, EstadoSesion> sesiones;
+
+    public CachePrincipales(CustomUserDetailsService userDetailsService, UsuarioRepository usuarioRepository,
+            CanalInvalidacion canal,
+            @Value("${app.jwt.principales.ttl-segundos:300}") long ttlSegundos,
+            @Value("${app.jwt.principales.maximo:10000}") long maximo) {
+        this.userDetailsService = userDetailsService;
+        this.usuarioRepository = usuarioRepository;
+        this.canal = canal;
+        this.principales = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .build();
+        this.sesiones = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .build();
+        canal.suscribir((cache, username) -> {
+            if (CANAL.equals(cache)) {
+                descartar(username);
+            }
+        });
+    }
+
+    /**
+     * Usuario del token ya validado, o null si el token fue revocado, el
+     * usuario está inactivo o es un refresh token.
+     */
+    public UserDetails obtener(Claims claims) {
+        if (JwtTokenProvider.esRefresh(claims) || estaRevocado(claims)) {
+            return null;
+        }
+        String username = claims.getSubject();
+        Object roles = claims.get(JwtTokenProvider.CLAIM_ROLES);
+        if (roles instanceof Collection<?> nombres) {
+            List<SimpleGrantedAuthority> authorities = nombres.stream()
+                    .map(nombre -> new SimpleGrantedAuthority(String.valueOf(nombre)))
+                    .toList();
+            return new User(username, "", authorities);
+        }
+        return principales.get(username, this::cargar);
+    }
+
+    /**
+     * Descarta el usuario en este nodo y en los demás.
+     */
+    public void invalidar(String username) {
+        descartar(username);
+        canal.publicar(CANAL, username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioCambiado(UsuarioCambiadoEvent event) {
+        log.info("[AUTH] Se invalidan la sesión y los tokens de {}", event.getUsername());
+        invalidar(event.getUsername());
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        return Map.of("principalesEnCache", principales.estimatedSize(),
+                "sesionesEnCache", sesiones.estimatedSize());
+    }
+
+    // El listener corre después del commit: al volver a leer la base ya está la marca nueva
+    private void descartar(String username) {
+        if (username == null) {
+            principales.invalidateAll();
+            sesiones.invalidateAll();
+            return;
+        }
+        principales.invalidate(username);
+        sesiones.invalidate(username);
+    }
+
+    /**
+     * Si el usuario no existe o está inactivo, o si el token se emitió antes de
+     * que se desactivara o cambiaran sus roles. El iat está en segundos: un
+     * token del mismo segundo que la revocación se da por revocado.
+     */
+    public boolean estaRevocado(Claims claims) {
+        EstadoSesion sesion = sesiones.get(claims.getSubject(), this::cargarSesion);
+        if (!sesion.activo) {
+            return true;
+        }
+        Date emitido = claims.getIssuedAt();
+        return sesion.validosDesde != null && (emitido == null || emitido.getTime() <= sesion.validosDesde);
+    }
+
+    // Un usuario que no existe se guarda como inactivo para no consultar la base en cada pedido
+    private EstadoSesion cargarSesion(String username) {
+        return usuarioRepository.findEstadoSesion(username)
+                .map(estado -> new EstadoSesion(estado.getActivo(), estado.getTokensValidosDesde()))
+                .orElse(EstadoSesion.INEXISTENTE);
+    }
+
+    // Sin la contraseña: el usuario cacheado solo se usa para autorizar
+    private UserDetails cargar(String username) {
+        UserDetails usuario = userDetailsService.loadUserByUsername(username);
+        return new User(usuario.getUsername(), "", usuario.isEnabled(), true, true, true,
+                usuario.getAuthorities());
+    }
+
+    private static final class EstadoSesion {
+        private static final EstadoSesion INEXISTENTE = new EstadoSesion(false, null);
+
+        private final boolean activo;
+        private final Long validosDesde;
+
+        private EstadoSesion(boolean activo, Long validosDesde) {
+            this.activo = activo;
+            this.validosDesde = validosDesde;
+        }
+    }
+}
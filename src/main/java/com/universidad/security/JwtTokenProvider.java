@@ -1,61 +1,184 @@
 package com.universidad.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    // Claim con los nombres de los roles, para no consultar el usuario en cada pedido
+    public static final String CLAIM_ROLES = "roles";
+    // Los refresh tokens llevan tipo=refresh y no sirven para autenticar pedidos
+    public static final String CLAIM_TIPO = "tipo";
+    public static final String TIPO_REFRESH = "refresh";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private int jwtExpirationInMs;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${app.jwt.refresh-expiration:604800000}")
+    private long refreshExpirationInMs;
+
+    // Tokens ya verificados, por hash del token, hasta que vencen
+    @Value("${app.jwt.verificados.maximo:10000}")
+    private long maximoVerificados;
+
+    // La clave y el parser son inmutables: se arman una sola vez
+    private Key signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verificados;
+
+    private final AtomicLong aciertosVerificados = new AtomicLong();
+    private final AtomicLong verificaciones = new AtomicLong();
+
+    @PostConstruct
+    void inicializar() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verificados = Caffeine.newBuilder()
+                .maximumSize(maximoVerificados)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String clave, Claims claims, long ahora) {
+                        return hastaVencer(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, Claims claims, long ahora, long restante) {
+                        return hastaVencer(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, Claims claims, long ahora, long restante) {
+                        return restante;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return construir(userDetails.getUsername(), roles(userDetails), false);
+    }
+
+    /**
+     * Token de larga duración para pedir nuevos tokens de acceso en
+     * /api/auth/refresh sin volver a verificar la contraseña.
+     */
+    public String generateRefreshToken(Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return construir(userDetails.getUsername(), roles(userDetails), true);
+    }
+
+    /**
+     * Nuevo token de acceso para el usuario del refresh token, que ya debe
+     * estar verificado y no revocado, con los roles vigentes en la base.
+     */
+    public String renovarToken(Claims refresh, List<String> roles) {
+        return construir(refresh.getSubject(), roles, false);
+    }
+
+    public static boolean esRefresh(Claims claims) {
+        return TIPO_REFRESH.equals(claims.get(CLAIM_TIPO));
+    }
+
+    public long getRefreshExpirationInMs() {
+        return refreshExpirationInMs;
+    }
+
+    private String construir(String username, List<String> roles, boolean refresh) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
+        Date expiryDate = new Date(now.getTime() + (refresh ? refreshExpirationInMs : jwtExpirationInMs));
 
-        return Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date())
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(username)
+                .claim(CLAIM_ROLES, roles);
+        if (refresh) {
+            builder.claim(CLAIM_TIPO, TIPO_REFRESH);
+        }
+        return builder
+                .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    private static List<String> roles(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+    }
+
+    /**
+     * Verifica el token una sola vez y devuelve sus claims, o null si no es
+     * válido. Un token ya verificado se responde desde la caché hasta su
+     * vencimiento, sin volver a calcular la firma ni leer el JSON.
+     */
+    public Claims verificarToken(String authToken) {
+        String clave = hash(authToken);
+        Claims claims = verificados.getIfPresent(clave);
+        if (claims != null) {
+            aciertosVerificados.incrementAndGet();
+            return claims;
+        }
+        claims = parsear(authToken);
+        if (claims != null) {
+            verificaciones.incrementAndGet();
+            verificados.put(clave, claims);
+        }
+        return claims;
+    }
+
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getClaimsFromJWT(token).getSubject();
+    }
 
-        return claims.getSubject();
+    public Claims getClaimsFromJWT(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean validateToken(String authToken) {
+        return verificarToken(authToken) != null;
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("tokensVerificados", verificaciones.get());
+        estadisticas.put("aciertosCacheVerificados", aciertosVerificados.get());
+        estadisticas.put("tokensEnCache", verificados.estimatedSize());
+        return estadisticas;
+    }
+
+    private Claims parsear(String authToken) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
         } catch (SecurityException ex) {
             log.error("Firma JWT inválida");
         } catch (MalformedJwtException ex) {
@@ -66,7 +189,26 @@ public class JwtTokenProvider {
             log.error("Token JWT no soportado");
         } catch (IllegalArgumentException ex) {
             log.error("Claims JWT vacíos");
+        } catch (JwtException ex) {
+            log.error("Token JWT inválido: {}", ex.getMessage());
+        }
+        return null;
+    }
+
+    private static long hastaVencer(Claims claims) {
+        Date vence = claims.getExpiration();
+        if (vence == null) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, vence.getTime() - System.currentTimeMillis()));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
         }
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,43 @@
 package com.universidad.service;
 
+import com.universidad.dto.EstadisticasDocenteDTO;
+import com.universidad.dto.PosicionDocenteDTO;
 import com.universidad.model.EvaluacionDocente;
 import java.util.List;
 
 public interface IEvaluacionDocenteService {
     EvaluacionDocente crearEvaluacion(EvaluacionDocente evaluacion);
+
+    /**
+     * Acepta la evaluación en la ingesta diferida; se guarda en segundo plano.
+     * @return clave de ingesta de la evaluación
+     */
+    String encolarEvaluacion(EvaluacionDocente evaluacion);
+
+    /**
+     * Indica si las evaluaciones nuevas se reciben por la ingesta diferida.
+     */
+    boolean isIngestaDiferida();
     List<EvaluacionDocente> obtenerEvaluacionesPorDocente(Long docenteId);
     EvaluacionDocente obtenerEvaluacionPorId(Long id);
     void eliminarEvaluacion(Long id);
+
+    /**
+     * Estadísticas agregadas de las evaluaciones del docente (cantidad,
+     * promedio, varianza, histograma y ventana de los últimos días), sin
+     * recorrer las evaluaciones.
+     */
+    EstadisticasDocenteDTO obtenerEstadisticas(Long docenteId);
+
+    /**
+     * Página del ranking de docentes por promedio, general o del departamento
+     * indicado.
+     */
+    List<PosicionDocenteDTO> obtenerRanking(String departamento, int pagina, int tamano);
+
+    /**
+     * Posición del docente en el ranking general y en el de su departamento, o
+     * null si todavía no tiene evaluaciones.
+     */
+    PosicionDocenteDTO obtenerPosicionEnRanking(Long docenteId);
 }
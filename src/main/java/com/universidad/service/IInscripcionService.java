@@ -1,8 +1,11 @@
 package com.universidad.service;
 
+import com.universidad.exception.BusinessException;
 import com.universidad.model.Inscripcion;
 import com.universidad.model.Inscripcion.EstadoInscripcion;
+import com.universidad.dto.CargaNotasResultadoDTO;
 import com.universidad.dto.InscripcionDTO;
+import com.universidad.dto.NotaEstudianteDTO;
 
 import java.util.List;
 
@@ -10,14 +13,37 @@ public interface IInscripcionService {
 
     Inscripcion crearInscripcion(Long estudianteId, Long materiaId);
 
+    /**
+     * Inscribe al estudiante en todas las materias del carrito en una sola
+     * transacción: si alguna se rechaza, no se crea ninguna.
+     * @throws BusinessException indicando la materia rechazada
+     */
+    List<Inscripcion> inscribirCarrito(Long estudianteId, List<Long> materiaIds);
+
     Inscripcion actualizarEstado(Long inscripcionId, EstadoInscripcion nuevoEstado);
 
     Inscripcion actualizarNota(Long inscripcionId, Double nota);
 
     void eliminarInscripcion(Long inscripcionId);
 
+    /**
+     * Registra en bloque las notas de una materia con la misma transición
+     * APROBADA/REPROBADA que {@link #actualizarNota(Long, Double)}. Todas las
+     * filas se validan antes de escribir: si alguna es inválida no se aplica
+     * ninguna y el resultado trae los errores.
+     */
+    CargaNotasResultadoDTO cargarNotas(Long materiaId, List<NotaEstudianteDTO> notas);
+
+    /**
+     * Igual que {@link #cargarNotas(Long, List)} a partir de un CSV con líneas
+     * {@code estudianteId,nota}; la cabecera es opcional.
+     */
+    CargaNotasResultadoDTO cargarNotasCsv(Long materiaId, String csv);
+
     Inscripcion obtenerInscripcionPorId(Long id);
 
+    InscripcionDTO obtenerInscripcionDTOPorId(Long id);
+
     List<Inscripcion> obtenerInscripcionesPorEstudiante(Long estudianteId);
 
     List<Inscripcion> obtenerInscripcionesPorMateria(Long materiaId);
@@ -37,4 +63,11 @@ public interface IInscripcionService {
     List<InscripcionDTO> obtenerInscripcionesDTOsActivasPorEstudiante(Long estudianteId);
 
     InscripcionDTO mapToDTO(Inscripcion inscripcion);
+
+    /**
+     * Recalcula el contador de cupos ocupados de la materia a partir de las
+     * inscripciones ACTIVAS, con la fila de la materia bloqueada.
+     * @return true si el contador fue corregido
+     */
+    boolean reconciliarCupoOcupado(Long materiaId);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.universidad.service;
+
+import com.universidad.dto.InscripcionDTO;
+import com.universidad.dto.ListaEsperaDTO;
+
+public interface IListaEsperaService {
+
+    /**
+     * Agrega al estudiante al final de la lista de espera de la materia. Si ya
+     * tenía un turno pendiente, devuelve ese turno.
+     */
+    ListaEsperaDTO encolar(Long estudianteId, Long materiaId);
+
+    /**
+     * Obtiene el turno pendiente del estudiante con su posición actual.
+     * @return el turno, o null si el estudiante no está en la lista de espera
+     */
+    ListaEsperaDTO obtenerTurno(Long estudianteId, Long materiaId);
+
+    void cancelar(Long estudianteId, Long materiaId);
+
+    /**
+     * Inscribe al primer estudiante de la lista de espera que cumpla las reglas
+     * de inscripción. Los turnos que ya no son válidos se descartan.
+     * @return la inscripción creada, o null si no se pudo promover a nadie
+     */
+    InscripcionDTO promoverSiguiente(Long materiaId);
+}
@@ -3,6 +3,8 @@ package com.universidad.service;
 import com.universidad.dto.MateriaDTO;
 import com.universidad.model.Materia;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface IMateriaService {
     List<MateriaDTO> obtenerTodasLasMaterias();
@@ -20,4 +22,12 @@ public interface IMateriaService {
     MateriaDTO asignarDocente(Long id, Long docenteId);
 
     List<MateriaDTO> obtenerMateriasPorDocente(Long docenteId);
+
+    boolean formariaCirculo(Long materiaId, Long prerequisitoId);
+
+    MateriaDTO agregarPrerequisitos(Long id, List<Long> prerequisitoIds);
+
+    MateriaDTO quitarPrerequisitos(Long id, List<Long> prerequisitoIds);
+
+    Set<Long> validarPrerequisitos(Map<Long, List<Long>> prerequisitosPorMateria);
 }
@@ -0,0 +1,25 @@
+package com.universidad.service;
+
+import com.universidad.dto.ReservaCupoDTO;
+
+public interface IReservaCupoService {
+
+    /**
+     * Retiene un cupo de la materia para el estudiante durante unos minutos,
+     * hasta que confirme la inscripción.
+     * @throws com.universidad.exception.CupoAgotadoException si no quedan cupos sin reservar
+     * @throws com.universidad.exception.BusinessException si el estudiante no puede inscribirse
+     */
+    ReservaCupoDTO reservar(Long estudianteId, Long materiaId);
+
+    /**
+     * @return la reserva vigente o null si no existe
+     */
+    ReservaCupoDTO obtenerReserva(Long estudianteId, Long materiaId);
+
+    /**
+     * Libera la reserva antes de su vencimiento.
+     * @throws com.universidad.exception.BusinessException si no existe
+     */
+    void cancelar(Long estudianteId, Long materiaId);
+}
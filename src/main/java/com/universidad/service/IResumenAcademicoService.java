@@ -0,0 +1,13 @@
+package com.universidad.service;
+
+import com.universidad.dto.ResumenAcademicoDTO;
+
+public interface IResumenAcademicoService {
+
+    /**
+     * Resumen académico del estudiante: promedio ponderado, créditos aprobados,
+     * materias reprobadas y carga en curso.
+     * @throws com.universidad.exception.BusinessException si el estudiante no existe
+     */
+    ResumenAcademicoDTO obtenerResumen(Long estudianteId);
+}
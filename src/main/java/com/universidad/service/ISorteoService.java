@@ -0,0 +1,39 @@
+package com.universidad.service;
+
+import com.universidad.dto.ResultadoSorteoDTO;
+import com.universidad.dto.SolicitudSorteoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ISorteoService {
+
+    /**
+     * Pasa la materia a modo sorteo: las inscripciones directas se rechazan y
+     * las solicitudes se juntan hasta el cierre.
+     * @param cierre fin de la ventana de solicitudes; null para ejecutar el sorteo solo manualmente
+     */
+    void configurarSorteo(Long materiaId, LocalDateTime cierre);
+
+    /**
+     * Registra la solicitud del estudiante para el sorteo. Si ya tenía una,
+     * devuelve la existente.
+     */
+    SolicitudSorteoDTO solicitar(Long estudianteId, Long materiaId);
+
+    /**
+     * Cambia el peso de prioridad de una solicitud pendiente.
+     */
+    SolicitudSorteoDTO ajustarPeso(Long solicitudId, Double peso);
+
+    /**
+     * Asigna los cupos libres de la materia entre las solicitudes pendientes
+     * en una sola pasada y vuelve la materia al modo por orden de llegada.
+     */
+    ResultadoSorteoDTO ejecutarSorteo(Long materiaId);
+
+    /**
+     * @return IDs de las materias en modo sorteo cuya ventana ya cerró
+     */
+    List<Long> obtenerMateriasConSorteoVencido();
+}
@@ -0,0 +1,23 @@
+package com.universidad.service;
+
+import java.util.List;
+
+public interface IUsuarioService {
+
+    /**
+     * Activa o desactiva el usuario. Al desactivarlo, sus tokens dejan de valer.
+     */
+    void cambiarEstado(String username, boolean activo);
+
+    /**
+     * Reemplaza los roles del usuario (ROL_ADMIN, ROL_DOCENTE, ROL_ESTUDIANTE).
+     * Los tokens emitidos con los roles anteriores dejan de valer.
+     */
+    void asignarRoles(String username, List<String> roles);
+
+    /**
+     * Roles actuales del usuario leídos de la base, o lista vacía si no existe
+     * o está inactivo.
+     */
+    List<String> obtenerRolesVigentes(String username);
+}
@@ -37,7 +37,7 @@ public class EstudianteServiceImpl implements IEstudianteService { // Define la
     }*/
 
     @Override
-    @Cacheable(value = "estudiantes")
+    @Cacheable(value = "estudiantes", sync = true) // Los fallos simultáneos comparten una sola carga
     public List<EstudianteDTO> obtenerTodosLosEstudiantes() {
         // Obtiene todos los estudiantes y los convierte a DTO
         return estudianteRepository.findAll().stream() // Obtiene todos los estudiantes de la base de datos
@@ -54,7 +54,7 @@ public class EstudianteServiceImpl implements IEstudianteService { // Define la
     }
 
     @Override
-    @Cacheable(value = "estudiantesActivos")
+    @Cacheable(value = "estudiantesActivos", sync = true) // Los fallos simultáneos comparten una sola carga
     public List<EstudianteDTO> obtenerEstudianteActivo() { // Método para obtener una lista de estudiantes activos
         // Busca todos los estudiantes activos y los convierte a DTO
         return estudianteRepository.findAll().stream() // Obtiene todos los estudiantes de la base de datos
@@ -1,13 +1,23 @@
 package com.universidad.service.impl;
 
+import com.universidad.concurrency.IngestaEvaluaciones;
+import com.universidad.dto.EstadisticasDocenteDTO;
+import com.universidad.dto.PosicionDocenteDTO;
+import com.universidad.event.EvaluacionDocenteCambiadaEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.index.EstadisticasEvaluaciones;
+import com.universidad.index.RankingDocentes;
 import com.universidad.model.EvaluacionDocente;
 import com.universidad.model.Docente;
 import com.universidad.repository.EvaluacionDocenteRepository;
 import com.universidad.repository.DocenteRepository;
 import com.universidad.service.IEvaluacionDocenteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -16,10 +26,42 @@ public class EvaluacionDocenteServiceImpl implements IEvaluacionDocenteService {
     private EvaluacionDocenteRepository evaluacionDocenteRepository;
     @Autowired
     private DocenteRepository docenteRepository;
+    @Autowired
+    private EstadisticasEvaluaciones estadisticasEvaluaciones;
+    @Autowired
+    private RankingDocentes rankingDocentes;
+    @Autowired
+    private IngestaEvaluaciones ingestaEvaluaciones;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Tamaño máximo de página del ranking
+    private static final int TAMANO_MAXIMO_RANKING = 100;
 
     @Override
     public EvaluacionDocente crearEvaluacion(EvaluacionDocente evaluacion) {
-        return evaluacionDocenteRepository.save(evaluacion);
+        if (evaluacion.getFecha() == null) {
+            evaluacion.setFecha(LocalDate.now());
+        }
+        EvaluacionDocente guardada = evaluacionDocenteRepository.save(evaluacion);
+        publicarCambio(guardada, true);
+        return guardada;
+    }
+
+    @Override
+    public String encolarEvaluacion(EvaluacionDocente evaluacion) {
+        Long docenteId = evaluacion.getDocente() != null ? evaluacion.getDocente().getId() : null;
+        // Se valida antes de aceptar: en el lote una fila inválida ya no se puede informar
+        if (docenteId == null || !docenteRepository.existsById(docenteId)) {
+            throw new BusinessException("Docente no encontrado");
+        }
+        LocalDate fecha = evaluacion.getFecha() != null ? evaluacion.getFecha() : LocalDate.now();
+        return ingestaEvaluaciones.encolar(docenteId, evaluacion.getPuntuacion(), evaluacion.getComentario(), fecha);
+    }
+
+    @Override
+    public boolean isIngestaDiferida() {
+        return ingestaEvaluaciones.isActiva();
     }
 
     @Override
@@ -35,7 +77,42 @@ public class EvaluacionDocenteServiceImpl implements IEvaluacionDocenteService {
     }
 
     @Override
+    @Transactional
     public void eliminarEvaluacion(Long id) {
-        evaluacionDocenteRepository.deleteById(id);
+        // Se lee antes de borrar para poder descontarla de las estadísticas. Si
+        // dos pedidos la eliminan a la vez, solo el que borró la fila publica el
+        // cambio: las estadísticas la descuentan una sola vez
+        EvaluacionDocente evaluacion = evaluacionDocenteRepository.findById(id).orElse(null);
+        if (evaluacion != null && evaluacionDocenteRepository.eliminarPorId(id) == 1) {
+            publicarCambio(evaluacion, false);
+        }
+    }
+
+    @Override
+    public EstadisticasDocenteDTO obtenerEstadisticas(Long docenteId) {
+        return estadisticasEvaluaciones.obtener(docenteId);
+    }
+
+    @Override
+    public List<PosicionDocenteDTO> obtenerRanking(String departamento, int pagina, int tamano) {
+        int tamanoPagina = Math.min(Math.max(tamano, 1), TAMANO_MAXIMO_RANKING);
+        return rankingDocentes.obtenerPagina(departamento, Math.max(pagina, 0), tamanoPagina);
+    }
+
+    @Override
+    public PosicionDocenteDTO obtenerPosicionEnRanking(Long docenteId) {
+        return rankingDocentes.obtenerPosicion(docenteId);
+    }
+
+    private void publicarCambio(EvaluacionDocente evaluacion, boolean alta) {
+        if (evaluacion.getDocente() == null || evaluacion.getDocente().getId() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new EvaluacionDocenteCambiadaEvent(
+                evaluacion.getId(),
+                evaluacion.getDocente().getId(),
+                evaluacion.getPuntuacion(),
+                evaluacion.getFecha(),
+                alta));
     }
 }
@@ -1,26 +1,47 @@
 package com.universidad.service.impl;
 
+import com.universidad.cache.EtiquetasCache;
+import com.universidad.cache.TwoLevelCacheManager;
+import com.universidad.concurrency.ReservasCupo;
+import com.universidad.event.InscripcionEstadoCambiadoEvent;
 import com.universidad.exception.BusinessException;
-import com.universidad.model.Estudiante;
+import com.universidad.exception.CupoAgotadoException;
+import com.universidad.index.GrafoPrerequisitos;
 import com.universidad.model.Inscripcion;
 import com.universidad.model.Inscripcion.EstadoInscripcion;
 import com.universidad.model.Materia;
+import com.universidad.model.Materia.ModoAsignacion;
 import com.universidad.repository.EstudianteRepository;
 import com.universidad.repository.InscripcionRepository;
 import com.universidad.repository.MateriaRepository;
+import com.universidad.repository.PrecheckInscripcion;
 import com.universidad.service.IInscripcionService;
+import com.universidad.dto.CargaNotasResultadoDTO;
 import com.universidad.dto.InscripcionDTO;
+import com.universidad.dto.NotaEstudianteDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class InscripcionServiceImpl implements IInscripcionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(InscripcionServiceImpl.class);
+
     @Autowired
     private InscripcionRepository inscripcionRepository;
 
@@ -30,33 +51,91 @@ public class InscripcionServiceImpl implements IInscripcionService {
     @Autowired
     private MateriaRepository materiaRepository;
 
+    @Autowired
+    private GrafoPrerequisitos grafoPrerequisitos;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReservasCupo reservasCupo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    // Todas las reglas de negocio se evalúan antes de cualquier escritura, por eso
+    // una BusinessException no necesita marcar la transacción para rollback. Esto
+    // permite que InscripcionDispatcher procese varias inscripciones en una
+    // misma transacción sin que un rechazo invalide al resto del lote.
+    // Las validaciones salen de una única consulta de precheck y del grafo de
+    // prerequisitos en memoria; el cupo se controla con la actualización
+    // condicional del contador de la materia.
     @Override
-    @Transactional
-    @CacheEvict(value = { "inscripciones", "materias", "estudiantes" }, allEntries = true)
+    @Transactional(noRollbackFor = BusinessException.class)
     public Inscripcion crearInscripcion(Long estudianteId, Long materiaId) {
-        // Validar que el estudiante existe y está activo
-        Estudiante estudiante = estudianteRepository.findById(estudianteId)
-                .orElseThrow(() -> new BusinessException("Estudiante no encontrado"));
+        return inscribir(estudianteId, materiaId);
+    }
+
+    // Todo o nada: cualquier rechazo revierte las inscripciones ya hechas del
+    // carrito. Los cupos se ocupan en orden ascendente de ID de materia. Los
+    // lotes de los carriles de InscripcionDispatcher, que pueden mezclar varias
+    // materias, también se ordenan así: carritos y lotes bloquean las filas de
+    // materia en el mismo orden y no quedan esperándose mutuamente. El carrito
+    // no pasa por los carriles: se bloquea la fila del estudiante para que dos
+    // carritos suyos no se crucen, y el índice único de inscripciones activas
+    // cubre la carrera con una inscripción individual.
+    @Override
+    @Transactional
+    public List<Inscripcion> inscribirCarrito(Long estudianteId, List<Long> materiaIds) {
+        if (materiaIds == null || materiaIds.isEmpty()) {
+            throw new BusinessException("El carrito no tiene materias");
+        }
+        // FOR NO KEY UPDATE serializa los carritos del estudiante sin chocar con
+        // el FOR KEY SHARE que toman las inscripciones de los carriles al
+        // insertar (la FK a estudiante): así no hay deadlock con ellas
+        if (jdbcTemplate.queryForList("SELECT id_persona FROM estudiante WHERE id_persona = ? FOR NO KEY UPDATE",
+                Long.class, estudianteId).isEmpty()) {
+            throw new BusinessException("Estudiante no encontrado");
+        }
+        List<Long> ordenadas = materiaIds.stream().distinct().sorted().toList();
+        List<Inscripcion> inscripciones = new ArrayList<>(ordenadas.size());
+        for (Long materiaId : ordenadas) {
+            try {
+                inscripciones.add(inscribir(estudianteId, materiaId));
+            } catch (BusinessException e) {
+                throw new BusinessException("Materia " + materiaId + ": " + e.getMessage(), e);
+            }
+        }
+        return inscripciones;
+    }
+
+    private Inscripcion inscribir(Long estudianteId, Long materiaId) {
+        PrecheckInscripcion precheck = inscripcionRepository.precheckInscripcion(estudianteId, materiaId);
 
-        if (!estudiante.isActivo()) {
+        // Validar que el estudiante existe y está activo
+        if (!precheck.getEstudianteExiste()) {
+            throw new BusinessException("Estudiante no encontrado");
+        }
+        if (!precheck.getEstudianteActivo()) {
             throw new BusinessException("El estudiante no está activo");
         }
 
         // Validar que la materia existe y está activa
-        Materia materia = materiaRepository.findById(materiaId)
-                .orElseThrow(() -> new BusinessException("Materia no encontrada"));
-
-        if (!materia.isActiva()) {
+        if (!precheck.getMateriaExiste()) {
+            throw new BusinessException("Materia no encontrada");
+        }
+        if (!precheck.getMateriaActiva()) {
             throw new BusinessException("La materia no está activa");
         }
-
-        // Validar cupo disponible
-        if (!validarCupoDisponible(materiaId)) {
-            throw new BusinessException("No hay cupos disponibles para esta materia");
+        if (ModoAsignacion.SORTEO.name().equals(precheck.getModoAsignacion())) {
+            throw new BusinessException("La materia asigna sus cupos por sorteo");
         }
 
         // Validar inscripción existente
-        if (validarInscripcionExistente(estudianteId, materiaId)) {
+        if (precheck.getYaInscrito()) {
             throw new BusinessException("El estudiante ya está inscrito en esta materia");
         }
 
@@ -65,61 +144,286 @@ public class InscripcionServiceImpl implements IInscripcionService {
             throw new BusinessException("No cumple con los prerequisitos de la materia");
         }
 
+        // El precheck permite rechazar sin escribir cuando la materia ya estaba
+        // llena; la actualización condicional sigue siendo la que decide. Los
+        // cupos reservados por otros estudiantes no están disponibles
+        int reservados = reservasCupo.reservadasPorOtros(materiaId, estudianteId);
+        if (precheck.getCupoOcupado() + reservados >= precheck.getCupoMaximo()
+                || materiaRepository.ocuparCupo(materiaId, reservados) == 0) {
+            throw new CupoAgotadoException("No hay cupos disponibles para esta materia");
+        }
+
+        // Ya se validó que ambos existen: se usan referencias sin volver a cargarlos
         Inscripcion inscripcion = new Inscripcion();
-        inscripcion.setEstudiante(estudiante);
-        inscripcion.setMateria(materia);
+        inscripcion.setEstudiante(estudianteRepository.getReferenceById(estudianteId));
+        inscripcion.setMateria(materiaRepository.getReferenceById(materiaId));
         inscripcion.setEstado(EstadoInscripcion.ACTIVA);
 
-        return inscripcionRepository.save(inscripcion);
+        Inscripcion guardada;
+        try {
+            guardada = inscripcionRepository.saveAndFlush(inscripcion);
+        } catch (DataIntegrityViolationException e) {
+            // Otra inscripción concurrente ganó (índice ux_inscripciones_activa).
+            // La transacción ya falló en la base: se marca para rollback, lo que
+            // también devuelve el cupo ocupado arriba
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            throw new BusinessException("El estudiante ya está inscrito en esta materia", e);
+        }
+        publicarCambio(guardada, null, null);
+        return guardada;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "inscripciones", allEntries = true)
     public Inscripcion actualizarEstado(Long inscripcionId, EstadoInscripcion nuevoEstado) {
-        Inscripcion inscripcion = obtenerInscripcionPorId(inscripcionId);
+        Inscripcion inscripcion = bloquearInscripcion(inscripcionId);
+        EstadoInscripcion estadoAnterior = inscripcion.getEstado();
+        actualizarCupo(inscripcion, nuevoEstado);
         inscripcion.setEstado(nuevoEstado);
-        return inscripcionRepository.save(inscripcion);
+        Inscripcion guardada = inscripcionRepository.save(inscripcion);
+        publicarCambio(guardada, estadoAnterior, guardada.getNota());
+        return guardada;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "inscripciones", allEntries = true)
     public Inscripcion actualizarNota(Long inscripcionId, Double nota) throws BusinessException {
-        Inscripcion inscripcion = obtenerInscripcionPorId(inscripcionId);
+        Inscripcion inscripcion = bloquearInscripcion(inscripcionId);
         if (nota < 0 || nota > 10) {
             throw new BusinessException("La nota debe estar entre 0 y 10.");
         }
+        EstadoInscripcion estadoAnterior = inscripcion.getEstado();
+        Double notaAnterior = inscripcion.getNota();
         inscripcion.setNota(nota);
 
         // Actualizar estado basado en la nota
-        if (nota >= 6) {
-            inscripcion.setEstado(EstadoInscripcion.APROBADA);
-        } else {
-            inscripcion.setEstado(EstadoInscripcion.REPROBADA);
+        EstadoInscripcion nuevoEstado = estadoPorNota(nota);
+        actualizarCupo(inscripcion, nuevoEstado);
+        inscripcion.setEstado(nuevoEstado);
+
+        Inscripcion guardada = inscripcionRepository.save(inscripcion);
+        publicarCambio(guardada, estadoAnterior, notaAnterior);
+        return guardada;
+    }
+
+    // El estado se lee con la fila bloqueada: un cambio concurrente espera y
+    // después ve el estado nuevo, así el cupo se ocupa o libera una sola vez
+    private Inscripcion bloquearInscripcion(Long inscripcionId) {
+        return inscripcionRepository.findByIdParaActualizar(inscripcionId)
+                .orElseThrow(() -> new BusinessException("La inscripción con ID " + inscripcionId + " no existe."));
+    }
+
+    private static EstadoInscripcion estadoPorNota(Double nota) {
+        return nota >= 6 ? EstadoInscripcion.APROBADA : EstadoInscripcion.REPROBADA;
+    }
+
+    // Las notas se validan completas en memoria contra las inscripciones de la
+    // materia (una sola consulta) y se escriben con un UPDATE por lotes. En vez
+    // de vaciar todo el caché de inscripciones, se invalidan solo las entradas
+    // de la materia y de los estudiantes afectados.
+    @Override
+    @Transactional
+    public CargaNotasResultadoDTO cargarNotas(Long materiaId, List<NotaEstudianteDTO> notas) {
+        long inicio = System.currentTimeMillis();
+        if (!materiaRepository.existsById(materiaId)) {
+            throw new BusinessException("Materia no encontrada");
         }
 
-        return inscripcionRepository.save(inscripcion);
+        // estudianteId -> inscripción vigente más reciente en la materia
+        Map<Long, Object[]> inscripcionPorEstudiante = new HashMap<>();
+        for (Object[] fila : inscripcionRepository.findNotasByMateria(materiaId)) {
+            inscripcionPorEstudiante.put((Long) fila[1], fila);
+        }
+
+        List<String> errores = new ArrayList<>();
+        Set<Long> vistos = new HashSet<>();
+        for (int i = 0; i < notas.size(); i++) {
+            NotaEstudianteDTO fila = notas.get(i);
+            String prefijo = "Fila " + (i + 1) + ": ";
+            if (fila.getEstudianteId() == null || fila.getNota() == null) {
+                errores.add(prefijo + "estudianteId y nota son obligatorios");
+            } else if (fila.getNota() < 0 || fila.getNota() > 10) {
+                errores.add(prefijo + "la nota debe estar entre 0 y 10");
+            } else if (!vistos.add(fila.getEstudianteId())) {
+                errores.add(prefijo + "el estudiante " + fila.getEstudianteId() + " está repetido");
+            } else if (!inscripcionPorEstudiante.containsKey(fila.getEstudianteId())) {
+                errores.add(prefijo + "el estudiante " + fila.getEstudianteId() + " no está inscrito en la materia");
+            }
+        }
+        CargaNotasResultadoDTO resultado = CargaNotasResultadoDTO.builder()
+                .materiaId(materiaId)
+                .recibidas(notas.size())
+                .errores(errores)
+                .build();
+        if (!errores.isEmpty()) {
+            resultado.setActualizadas(0);
+            return resultado;
+        }
+
+        List<Object[]> actualizaciones = new ArrayList<>();
+        List<InscripcionEstadoCambiadoEvent> eventos = new ArrayList<>();
+        int aprobadas = 0;
+        int liberados = 0;
+        for (NotaEstudianteDTO fila : notas) {
+            Object[] actual = inscripcionPorEstudiante.get(fila.getEstudianteId());
+            Long inscripcionId = (Long) actual[0];
+            EstadoInscripcion estadoAnterior = (EstadoInscripcion) actual[2];
+            Double notaAnterior = (Double) actual[3];
+            EstadoInscripcion nuevoEstado = estadoPorNota(fila.getNota());
+            if (nuevoEstado == EstadoInscripcion.APROBADA) {
+                aprobadas++;
+            }
+            if (nuevoEstado == estadoAnterior && fila.getNota().equals(notaAnterior)) {
+                continue;
+            }
+            if (estadoAnterior == EstadoInscripcion.ACTIVA) {
+                liberados++;
+            }
+            actualizaciones.add(new Object[] { fila.getNota(), nuevoEstado.name(), inscripcionId, estadoAnterior.name() });
+            eventos.add(new InscripcionEstadoCambiadoEvent(inscripcionId, fila.getEstudianteId(), materiaId,
+                    estadoAnterior, nuevoEstado, notaAnterior, fila.getNota()));
+        }
+
+        // Cada fila se actualiza solo si sigue en el estado leído arriba: si otro
+        // pedido la cambió mientras tanto (por ejemplo, una cancelación que ya
+        // liberó el cupo) no se cuenta dos veces y la carga completa se revierte
+        int[] filas = jdbcTemplate.batchUpdate(
+                "UPDATE inscripciones SET nota = ?, estado = ? WHERE id = ? AND estado = ?", actualizaciones);
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] == 0) {
+                errores.add("El estudiante " + eventos.get(i).getEstudianteId()
+                        + " cambió de estado durante la carga; reintente");
+            }
+        }
+        if (!errores.isEmpty()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            resultado.setActualizadas(0);
+            return resultado;
+        }
+        if (liberados > 0) {
+            materiaRepository.liberarCupos(materiaId, liberados);
+        }
+        eventos.forEach(eventPublisher::publishEvent);
+        if (!eventos.isEmpty()) {
+            List<String> etiquetas = new ArrayList<>(eventos.size() + 1);
+            etiquetas.add(EtiquetasCache.materia(materiaId));
+            eventos.forEach(evento -> etiquetas.add(EtiquetasCache.estudiante(evento.getEstudianteId())));
+            cacheManager.invalidarEtiquetas(etiquetas);
+        }
+
+        resultado.setActualizadas(actualizaciones.size());
+        resultado.setSinCambios(notas.size() - actualizaciones.size());
+        resultado.setAprobadas(aprobadas);
+        resultado.setReprobadas(notas.size() - aprobadas);
+        long fin = System.currentTimeMillis();
+        logger.info("[INSCRIPCION] Carga de notas de la materia {}: {} actualizadas de {} (Duracion: {} ms)",
+                materiaId, actualizaciones.size(), notas.size(), (fin - inicio));
+        return resultado;
+    }
+
+    @Override
+    @Transactional
+    public CargaNotasResultadoDTO cargarNotasCsv(Long materiaId, String csv) {
+        List<NotaEstudianteDTO> notas = new ArrayList<>();
+        List<String> errores = new ArrayList<>();
+        String[] lineas = csv.split("\\r?\\n");
+        boolean primera = true;
+        for (int i = 0; i < lineas.length; i++) {
+            String linea = lineas[i].trim();
+            if (linea.isEmpty()) {
+                continue;
+            }
+            boolean esPrimera = primera;
+            primera = false;
+            String[] campos = linea.split("[,;]");
+            try {
+                if (campos.length != 2) {
+                    throw new NumberFormatException();
+                }
+                notas.add(new NotaEstudianteDTO(Long.valueOf(campos[0].trim()), Double.valueOf(campos[1].trim())));
+            } catch (NumberFormatException e) {
+                // La primera línea puede ser la cabecera
+                if (!esPrimera) {
+                    errores.add("Línea " + (i + 1) + ": se esperaba estudianteId,nota");
+                }
+            }
+        }
+        if (!errores.isEmpty()) {
+            return CargaNotasResultadoDTO.builder()
+                    .materiaId(materiaId)
+                    .recibidas(notas.size() + errores.size())
+                    .actualizadas(0)
+                    .errores(errores)
+                    .build();
+        }
+        return cargarNotas(materiaId, notas);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "inscripciones", allEntries = true)
     public void eliminarInscripcion(Long inscripcionId) {
-        Inscripcion inscripcion = obtenerInscripcionPorId(inscripcionId);
+        Inscripcion inscripcion = bloquearInscripcion(inscripcionId);
+        EstadoInscripcion estadoAnterior = inscripcion.getEstado();
+        actualizarCupo(inscripcion, EstadoInscripcion.CANCELADA);
         inscripcion.setEstado(EstadoInscripcion.CANCELADA);
-        inscripcionRepository.save(inscripcion);
+        Inscripcion guardada = inscripcionRepository.save(inscripcion);
+        publicarCambio(guardada, estadoAnterior, guardada.getNota());
+    }
+
+    // Publica el cambio para los índices en memoria; los listeners lo procesan
+    // después del commit. Del caché de inscripciones se invalidan solo las
+    // entradas del estudiante y de la materia de la inscripción
+    private void publicarCambio(Inscripcion inscripcion, EstadoInscripcion estadoAnterior, Double notaAnterior) {
+        Long estudianteId = inscripcion.getEstudiante().getId();
+        Long materiaId = inscripcion.getMateria().getId();
+        eventPublisher.publishEvent(new InscripcionEstadoCambiadoEvent(
+                inscripcion.getId(),
+                estudianteId,
+                materiaId,
+                estadoAnterior,
+                inscripcion.getEstado(),
+                notaAnterior,
+                inscripcion.getNota()));
+        cacheManager.invalidarEtiquetas(List.of(
+                EtiquetasCache.estudiante(estudianteId), EtiquetasCache.materia(materiaId)));
     }
 
+    /**
+     * Mantiene el contador de cupos ocupados de la materia cuando una inscripción
+     * entra o sale del estado ACTIVA.
+     */
+    private void actualizarCupo(Inscripcion inscripcion, EstadoInscripcion nuevoEstado) {
+        boolean ocupabaCupo = inscripcion.getEstado() == EstadoInscripcion.ACTIVA;
+        boolean ocupaCupo = nuevoEstado == EstadoInscripcion.ACTIVA;
+        if (ocupabaCupo == ocupaCupo) {
+            return;
+        }
+        Long materiaId = inscripcion.getMateria().getId();
+        if (ocupaCupo) {
+            int reservados = reservasCupo.reservadasPorOtros(materiaId, inscripcion.getEstudiante().getId());
+            if (materiaRepository.ocuparCupo(materiaId, reservados) == 0) {
+                throw new CupoAgotadoException("No hay cupos disponibles para esta materia");
+            }
+        } else {
+            materiaRepository.liberarCupo(materiaId);
+        }
+    }
+
+    // La caché "inscripciones" guarda solo DTOs: las entidades traen proxies
+    // perezosos que no se pueden serializar fuera de la sesión
     @Override
-    @Cacheable(value = "inscripciones", key = "#id")
     public Inscripcion obtenerInscripcionPorId(Long id) throws BusinessException {
         return inscripcionRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("La inscripción con ID " + id + " no existe."));
     }
 
     @Override
-    @Cacheable(value = "inscripciones", key = "'estudiante_' + #estudianteId")
+    @Cacheable(value = "inscripciones", key = "#id")
+    public InscripcionDTO obtenerInscripcionDTOPorId(Long id) throws BusinessException {
+        return mapToDTO(obtenerInscripcionPorId(id));
+    }
+
+    @Override
     public List<Inscripcion> obtenerInscripcionesPorEstudiante(Long estudianteId) {
         return inscripcionRepository.findByEstudianteId(estudianteId);
     }
@@ -159,14 +463,13 @@ public class InscripcionServiceImpl implements IInscripcionService {
     }
 
     @Override
-    @Cacheable(value = "inscripciones", key = "'estudiante_activas_' + #estudianteId")
     public List<Inscripcion> obtenerInscripcionesActivasPorEstudiante(Long estudianteId) {
         return inscripcionRepository.findByEstudianteIdAndEstado(estudianteId, EstadoInscripcion.ACTIVA);
     }
 
     @Override
     public boolean validarCupoDisponible(Long materiaId) {
-        Materia materia = materiaRepository.findById(materiaId)
+        Materia materia = materiaRepository.findMateriaById(materiaId)
                 .orElseThrow(() -> new BusinessException("Materia no encontrada"));
         return materia.tieneCupoDisponible();
     }
@@ -179,26 +482,27 @@ public class InscripcionServiceImpl implements IInscripcionService {
 
     @Override
     public boolean validarPrerequisitos(Long estudianteId, Long materiaId) {
-        Materia materia = materiaRepository.findById(materiaId)
-                .orElseThrow(() -> new BusinessException("Materia no encontrada"));
-
-        // Si la materia no tiene prerequisitos, retornar true
-        if (materia.getPrerequisitos() == null || materia.getPrerequisitos().isEmpty()) {
-            return true;
-        }
-
-        // Obtener todas las materias aprobadas del estudiante
-        List<Inscripcion> inscripcionesAprobadas = inscripcionRepository
-                .findByEstudianteIdAndEstado(estudianteId, EstadoInscripcion.APROBADA);
-
-        // Verificar que el estudiante haya aprobado todos los prerequisitos
-        return materia.getPrerequisitos().stream()
-                .allMatch(prerequisito -> inscripcionesAprobadas.stream()
-                        .anyMatch(inscripcion -> inscripcion.getMateria().getId().equals(prerequisito.getId())));
+        // El grafo en memoria compara los prerequisitos de la materia contra las
+        // materias aprobadas del estudiante sin volver a consultar la base
+        return grafoPrerequisitos.cumplePrerequisitos(estudianteId, materiaId);
     }
 
     @Override
     public List<Inscripcion> obtenerInscripcionesPorMateria(Long materiaId) {
         return inscripcionRepository.findByMateriaId(materiaId);
     }
+
+    // Con la fila de la materia bloqueada no puede quedar sin confirmar ninguna
+    // transacción que ya haya movido el contador, y el conteo (otra sentencia,
+    // otra instantánea) ve sus inscripciones. Las que todavía no lo movieron
+    // aplican su diferencia después, sobre el valor corregido.
+    @Override
+    @Transactional
+    public boolean reconciliarCupoOcupado(Long materiaId) {
+        if (materiaRepository.bloquearParaReconciliar(materiaId).isEmpty()) {
+            return false;
+        }
+        Long activas = inscripcionRepository.countInscripcionesActivasByMateria(materiaId);
+        return materiaRepository.actualizarCupoOcupado(materiaId, activas != null ? activas.intValue() : 0) > 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.universidad.service.impl;
+
+import com.universidad.concurrency.InscripcionDispatcher;
+import com.universidad.dto.InscripcionDTO;
+import com.universidad.dto.ListaEsperaDTO;
+import com.universidad.event.InscripcionEstadoCambiadoEvent;
+import com.universidad.event.ReservaCupoLiberadaEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.exception.CupoAgotadoException;
+import com.universidad.exception.ServicioSaturadoException;
+import com.universidad.model.Inscripcion;
+import com.universidad.model.Inscripcion.EstadoInscripcion;
+import com.universidad.model.ListaEspera;
+import com.universidad.model.ListaEspera.EstadoListaEspera;
+import com.universidad.repository.EstudianteRepository;
+import com.universidad.repository.ListaEsperaRepository;
+import com.universidad.repository.MateriaRepository;
+import com.universidad.service.IInscripcionService;
+import com.universidad.service.IListaEsperaService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Lista de espera FIFO por materia. Los turnos se persisten en la tabla
+ * lista_espera, que es la única fuente de verdad: todos los nodos leen de ahí
+ * el orden y la posición de cada turno.
+ *
+ * Cuando se cancela una inscripción ACTIVA o vence una reserva de cupo el
+ * primer turno se promueve automáticamente en el carril de la materia, así los
+ * estudiantes no necesitan reintentar la inscripción.
+ */
+@Service
+public class ListaEsperaServiceImpl implements IListaEsperaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListaEsperaServiceImpl.class);
+
+    @Autowired
+    private ListaEsperaRepository listaEsperaRepository;
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    @Autowired
+    private MateriaRepository materiaRepository;
+
+    @Autowired
+    private IInscripcionService inscripcionService;
+
+    @Autowired
+    private InscripcionDispatcher inscripcionDispatcher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public ListaEsperaDTO encolar(Long estudianteId, Long materiaId) {
+        Optional<ListaEspera> existente = listaEsperaRepository
+                .findByEstudianteIdAndMateriaIdAndEstado(estudianteId, materiaId, EstadoListaEspera.PENDIENTE);
+        if (existente.isPresent()) {
+            return mapToDTO(existente.get(), posicion(existente.get()));
+        }
+        if (!estudianteRepository.existsById(estudianteId)) {
+            throw new BusinessException("Estudiante no encontrado");
+        }
+        if (!materiaRepository.existsById(materiaId)) {
+            throw new BusinessException("Materia no encontrada");
+        }
+
+        ListaEspera turno = new ListaEspera();
+        turno.setEstudiante(estudianteRepository.getReferenceById(estudianteId));
+        turno.setMateria(materiaRepository.getReferenceById(materiaId));
+        turno.setEstado(EstadoListaEspera.PENDIENTE);
+        ListaEspera guardado = listaEsperaRepository.saveAndFlush(turno);
+        return mapToDTO(guardado, posicion(guardado));
+    }
+
+    @Override
+    public ListaEsperaDTO obtenerTurno(Long estudianteId, Long materiaId) {
+        return listaEsperaRepository
+                .findByEstudianteIdAndMateriaIdAndEstado(estudianteId, materiaId, EstadoListaEspera.PENDIENTE)
+                .map(turno -> mapToDTO(turno, posicion(turno)))
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional
+    public void cancelar(Long estudianteId, Long materiaId) {
+        ListaEspera turno = listaEsperaRepository.findPendienteParaActualizar(estudianteId, materiaId)
+                .orElseThrow(() -> new BusinessException("El estudiante no está en la lista de espera"));
+        turno.setEstado(EstadoListaEspera.CANCELADA);
+        listaEsperaRepository.save(turno);
+    }
+
+    // Cada turno se intenta en su propia transacción: la inscripción y la marca
+    // PROMOVIDA se confirman o se revierten juntas, y un turno inválido se
+    // descarta sin impedir que se promueva al siguiente
+    @Override
+    public InscripcionDTO promoverSiguiente(Long materiaId) {
+        while (true) {
+            Intento intento = transactionTemplate.execute(status -> intentarPromocion(materiaId, status));
+            if (intento.terminado) {
+                return intento.inscripcion;
+            }
+        }
+    }
+
+    private Intento intentarPromocion(Long materiaId, TransactionStatus status) {
+        ListaEspera entrada = listaEsperaRepository.findSiguientePendienteParaPromover(materiaId).orElse(null);
+        if (entrada == null) {
+            return Intento.SIN_PROMOCION;
+        }
+        Long estudianteId = entrada.getEstudiante().getId();
+        try {
+            Inscripcion inscripcion = inscripcionService.crearInscripcion(estudianteId, materiaId);
+            marcar(entrada, EstadoListaEspera.PROMOVIDA, null);
+            logger.info("[LISTA_ESPERA] Estudiante {} promovido en materia {}", estudianteId, materiaId);
+            return new Intento(true, inscripcionService.mapToDTO(inscripcion));
+        } catch (CupoAgotadoException e) {
+            // El cupo liberado ya fue tomado; el turno conserva su lugar
+            status.setRollbackOnly();
+            return Intento.SIN_PROMOCION;
+        } catch (BusinessException e) {
+            if (status.isRollbackOnly()) {
+                // La inscripción falló en la base (otra concurrente ganó): se
+                // revierte y el próximo intento descarta el turno en el precheck
+                status.setRollbackOnly();
+                return Intento.SEGUIR;
+            }
+            marcar(entrada, EstadoListaEspera.DESCARTADA, e.getMessage());
+            return Intento.SEGUIR;
+        }
+    }
+
+    /**
+     * Solo la cancelación de una inscripción ACTIVA deja un cupo para la lista
+     * de espera; aprobar o reprobar cierra la cursada y no abre lugar a nadie.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInscripcionEstadoCambiado(InscripcionEstadoCambiadoEvent evento) {
+        if (evento.getEstadoAnterior() != EstadoInscripcion.ACTIVA
+                || evento.getEstadoNuevo() != EstadoInscripcion.CANCELADA) {
+            return;
+        }
+        programarPromocion(evento.getMateriaId());
+    }
+
+    /**
+     * Una reserva que vence o se cancela devuelve el cupo que retenía.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservaCupoLiberada(ReservaCupoLiberadaEvent evento) {
+        programarPromocion(evento.getMateriaId());
+    }
+
+    // Se encola la promoción en el carril de la materia para que no compita
+    // con las inscripciones nuevas. Se programa siempre: los turnos pueden
+    // haberse encolado en otro nodo, y si no hay ninguno la consulta lo resuelve
+    private void programarPromocion(Long materiaId) {
+        try {
+            inscripcionDispatcher.ejecutarEnCarril(materiaId, () -> promoverSiguiente(materiaId));
+        } catch (ServicioSaturadoException e) {
+            logger.warn("[LISTA_ESPERA] No se pudo encolar la promoción de la materia {}: {}", materiaId,
+                    e.getMessage());
+        }
+    }
+
+    private void marcar(ListaEspera entrada, EstadoListaEspera estado, String motivo) {
+        entrada.setEstado(estado);
+        entrada.setMotivo(motivo);
+        listaEsperaRepository.save(entrada);
+    }
+
+    private int posicion(ListaEspera turno) {
+        return (int) listaEsperaRepository.countPendientesHasta(turno.getMateria().getId(), turno.getId());
+    }
+
+    private ListaEsperaDTO mapToDTO(ListaEspera turno, int posicion) {
+        return ListaEsperaDTO.builder()
+                .id(turno.getId())
+                .estudianteId(turno.getEstudiante() != null ? turno.getEstudiante().getId() : null)
+                .materiaId(turno.getMateria() != null ? turno.getMateria().getId() : null)
+                .estado(turno.getEstado() != null ? turno.getEstado().name() : null)
+                .fechaSolicitud(turno.getFechaSolicitud())
+                .posicion(posicion)
+                .build();
+    }
+
+    private static final class Intento {
+        private static final Intento SIN_PROMOCION = new Intento(true, null);
+        private static final Intento SEGUIR = new Intento(false, null);
+
+        private final boolean terminado;
+        private final InscripcionDTO inscripcion;
+
+        private Intento(boolean terminado, InscripcionDTO inscripcion) {
+            this.terminado = terminado;
+            this.inscripcion = inscripcion;
+        }
+    }
+}
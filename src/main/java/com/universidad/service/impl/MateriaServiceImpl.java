@@ -1,5 +1,9 @@
 package com.universidad.service.impl;
 
+import com.universidad.event.CreditosMateriaActualizadosEvent;
+import com.universidad.event.PrerequisitosActualizadosEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.index.GrafoPrerequisitos;
 import com.universidad.model.Materia;
 import com.universidad.repository.MateriaRepository;
 import com.universidad.service.IMateriaService;
@@ -10,10 +14,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +35,18 @@ public class MateriaServiceImpl implements IMateriaService {
     @Autowired
     private DocenteRepository docenteRepository;
 
+    @Autowired
+    private GrafoPrerequisitos grafoPrerequisitos;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Clave del advisory lock de PostgreSQL que serializa la edición de prerequisitos
+    private static final long BLOQUEO_PRERREQUISITOS = 7_304_001L;
+
     // Método utilitario para mapear Materia a MateriaDTO
     private MateriaDTO mapToDTO(Materia materia) {
         if (materia == null)
@@ -45,7 +67,7 @@ public class MateriaServiceImpl implements IMateriaService {
     }
 
     @Override
-    @Cacheable(value = "materias")
+    @Cacheable(value = "materias", sync = true) // Los fallos simultáneos comparten una sola carga
     public List<MateriaDTO> obtenerTodasLasMaterias() {
         return materiaRepository.findAll().stream().map(this::mapToDTO).collect(Collectors.toList());
     }
@@ -83,11 +105,15 @@ public class MateriaServiceImpl implements IMateriaService {
     public MateriaDTO actualizarMateria(Long id, MateriaDTO materiaDTO) {
         Materia materia = materiaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Materia not found"));
+        boolean cambianCreditos = !Objects.equals(materia.getCreditos(), materiaDTO.getCreditos());
         materia.setNombreMateria(materiaDTO.getNombreMateria());
         materia.setCodigoUnico(materiaDTO.getCodigoUnico());
         materia.setCreditos(materiaDTO.getCreditos());
         // Map other fields as necessary
         Materia updatedMateria = materiaRepository.save(materia);
+        if (cambianCreditos) {
+            eventPublisher.publishEvent(new CreditosMateriaActualizadosEvent(id));
+        }
         return mapToDTO(updatedMateria);
     }
 
@@ -95,6 +121,7 @@ public class MateriaServiceImpl implements IMateriaService {
     @CacheEvict(value = { "materia", "materias" }, allEntries = true)
     public void eliminarMateria(Long id) {
         materiaRepository.deleteById(id);
+        grafoPrerequisitos.eliminarMateria(id);
     }
 
     @Override
@@ -122,4 +149,77 @@ public class MateriaServiceImpl implements IMateriaService {
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public boolean formariaCirculo(Long materiaId, Long prerequisitoId) {
+        return grafoPrerequisitos.formariaCiclo(materiaId, prerequisitoId);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = { "materia", "materias" }, allEntries = true)
+    public MateriaDTO agregarPrerequisitos(Long id, List<Long> prerequisitoIds) {
+        Set<Long> candidatos = new LinkedHashSet<>(prerequisitoIds);
+        validarMateriasExistentes(id, candidatos);
+        bloquearEdicionPrerequisitos();
+
+        // Dos ediciones concurrentes podrían cerrar un ciclo entre las dos si
+        // cada una validara contra el grafo en memoria, que se actualiza después
+        // del commit. Con el bloqueo tomado se valida contra las aristas de la
+        // base, sin recorrer las colecciones perezosas de las entidades
+        List<Long> conflictivos = grafoPrerequisitos.prerequisitosQueFormanCicloEnBase(id, candidatos);
+        if (!conflictivos.isEmpty()) {
+            throw new BusinessException("Los prerequisitos " + conflictivos + " formarían un ciclo");
+        }
+
+        Set<Long> resultantes = prerequisitosActuales(id);
+        for (Long prerequisitoId : candidatos) {
+            if (resultantes.add(prerequisitoId)) {
+                materiaRepository.insertarPrerequisito(id, prerequisitoId);
+            }
+        }
+        eventPublisher.publishEvent(new PrerequisitosActualizadosEvent(id, List.copyOf(resultantes)));
+        return materiaRepository.findMateriaById(id).map(this::mapToDTO).orElse(null);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = { "materia", "materias" }, allEntries = true)
+    public MateriaDTO quitarPrerequisitos(Long id, List<Long> prerequisitoIds) {
+        if (!materiaRepository.existsById(id)) {
+            throw new IllegalArgumentException("Materia not found");
+        }
+        bloquearEdicionPrerequisitos();
+        Set<Long> resultantes = prerequisitosActuales(id);
+        if (!prerequisitoIds.isEmpty() && resultantes.removeAll(prerequisitoIds)) {
+            materiaRepository.eliminarPrerequisitos(id, prerequisitoIds);
+            eventPublisher.publishEvent(new PrerequisitosActualizadosEvent(id, List.copyOf(resultantes)));
+        }
+        return materiaRepository.findMateriaById(id).map(this::mapToDTO).orElse(null);
+    }
+
+    @Override
+    public Set<Long> validarPrerequisitos(Map<Long, List<Long>> prerequisitosPorMateria) {
+        return grafoPrerequisitos.materiasEnCiclo(prerequisitosPorMateria);
+    }
+
+    // Se lee de la base: el conjunto resultante se publica para reemplazar el
+    // del grafo en memoria y no debe perder una edición recién confirmada
+    private Set<Long> prerequisitosActuales(Long id) {
+        return new LinkedHashSet<>(materiaRepository.findPrerequisitoIds(id));
+    }
+
+    // Se libera solo al terminar la transacción
+    private void bloquearEdicionPrerequisitos() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + BLOQUEO_PRERREQUISITOS + ")");
+    }
+
+    private void validarMateriasExistentes(Long id, Set<Long> prerequisitoIds) {
+        if (!materiaRepository.existsById(id)) {
+            throw new IllegalArgumentException("Materia not found");
+        }
+        if (!prerequisitoIds.isEmpty() && materiaRepository.countByIdIn(prerequisitoIds) != prerequisitoIds.size()) {
+            throw new IllegalArgumentException("Prerequisito not found");
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package com.universidad.service.impl;
+
+import com.universidad.concurrency.InscripcionDispatcher;
+import com.universidad.concurrency.ReservasCupo;
+import com.universidad.dto.ReservaCupoDTO;
+import com.universidad.event.ReservaCupoLiberadaEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.exception.CupoAgotadoException;
+import com.universidad.index.GrafoPrerequisitos;
+import com.universidad.model.Materia.ModoAsignacion;
+import com.universidad.repository.InscripcionRepository;
+import com.universidad.repository.PrecheckInscripcion;
+import com.universidad.service.IReservaCupoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reservas de cupo durante el checkout. La verificación de cupo se ejecuta en
+ * el carril de la materia, serializada con las inscripciones, así una reserva
+ * y una inscripción concurrentes no pueden tomar el mismo último cupo. La
+ * reserva no toca la fila de la materia: solo se descuenta en memoria.
+ */
+@Service
+public class ReservaCupoServiceImpl implements IReservaCupoService {
+
+    @Autowired
+    private InscripcionRepository inscripcionRepository;
+
+    @Autowired
+    private GrafoPrerequisitos grafoPrerequisitos;
+
+    @Autowired
+    private InscripcionDispatcher inscripcionDispatcher;
+
+    @Autowired
+    private ReservasCupo reservasCupo;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.inscripciones.reservas.duracion-minutos:10}")
+    private long duracionMinutos;
+
+    @Override
+    public ReservaCupoDTO reservar(Long estudianteId, Long materiaId) {
+        return inscripcionDispatcher.consultarEnCarril(materiaId, () -> {
+            ReservaCupoDTO existente = reservasCupo.obtener(estudianteId, materiaId);
+            if (existente != null) {
+                return existente;
+            }
+            PrecheckInscripcion precheck = inscripcionRepository.precheckInscripcion(estudianteId, materiaId);
+            if (!precheck.getEstudianteExiste()) {
+                throw new BusinessException("Estudiante no encontrado");
+            }
+            if (!precheck.getEstudianteActivo()) {
+                throw new BusinessException("El estudiante no está activo");
+            }
+            if (!precheck.getMateriaExiste()) {
+                throw new BusinessException("Materia no encontrada");
+            }
+            if (!precheck.getMateriaActiva()) {
+                throw new BusinessException("La materia no está activa");
+            }
+            if (ModoAsignacion.SORTEO.name().equals(precheck.getModoAsignacion())) {
+                throw new BusinessException("La materia asigna sus cupos por sorteo");
+            }
+            if (precheck.getYaInscrito()) {
+                throw new BusinessException("El estudiante ya está inscrito en esta materia");
+            }
+            if (!grafoPrerequisitos.cumplePrerequisitos(estudianteId, materiaId)) {
+                throw new BusinessException("No cumple con los prerequisitos de la materia");
+            }
+            if (precheck.getCupoOcupado() + reservasCupo.reservadas(materiaId) >= precheck.getCupoMaximo()) {
+                throw new CupoAgotadoException("No hay cupos disponibles para reservar en esta materia");
+            }
+            return reservasCupo.reservar(estudianteId, materiaId, duracionMinutos * 60_000L);
+        });
+    }
+
+    @Override
+    public ReservaCupoDTO obtenerReserva(Long estudianteId, Long materiaId) {
+        return reservasCupo.obtener(estudianteId, materiaId);
+    }
+
+    @Override
+    public void cancelar(Long estudianteId, Long materiaId) {
+        if (!reservasCupo.liberar(estudianteId, materiaId)) {
+            throw new BusinessException("El estudiante no tiene una reserva en esta materia");
+        }
+        eventPublisher.publishEvent(new ReservaCupoLiberadaEvent(estudianteId, materiaId));
+    }
+}
@@ -0,0 +1,176 @@
+package com.universidad.service.impl;
+
+import com.universidad.dto.ResumenAcademicoDTO;
+import com.universidad.event.CreditosMateriaActualizadosEvent;
+import com.universidad.event.InscripcionEstadoCambiadoEvent;
+import com.universidad.event.InscripcionesAsignadasEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.model.Inscripcion.EstadoInscripcion;
+import com.universidad.repository.EstudianteRepository;
+import com.universidad.repository.InscripcionRepository;
+import com.universidad.repository.MateriaRepository;
+import com.universidad.service.IResumenAcademicoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumen académico por estudiante mantenido en memoria. La primera consulta
+ * de un estudiante lo arma con una sola consulta de sus inscripciones; después
+ * se actualiza de forma incremental con los eventos de cambio de estado y nota,
+ * así la página de historial cuesta una búsqueda en un mapa.
+ *
+ * Cada resumen guarda el aporte de cada inscripción, por lo que aplicar un
+ * evento reemplaza el aporte anterior en lugar de sumarlo: aplicar dos veces el
+ * mismo cambio (por ejemplo si la carga inicial ya lo incluía) no lo duplica.
+ */
+@Service
+public class ResumenAcademicoServiceImpl implements IResumenAcademicoService {
+
+    @Autowired
+    private InscripcionRepository inscripcionRepository;
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    @Autowired
+    private MateriaRepository materiaRepository;
+
+    @Value("${app.resumen-academico.max-estudiantes:100000}")
+    private int maxEstudiantes;
+
+    private final ConcurrentHashMap<Long, ResumenEstudiante> resumenes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> creditosPorMateria = new ConcurrentHashMap<>();
+
+    @Override
+    public ResumenAcademicoDTO obtenerResumen(Long estudianteId) {
+        if (resumenes.size() >= maxEstudiantes) {
+            resumenes.clear();
+        }
+        ResumenEstudiante resumen = resumenes.computeIfAbsent(estudianteId, this::cargar);
+        if (resumen == null) {
+            throw new BusinessException("Estudiante no encontrado");
+        }
+        return resumen.toDTO(estudianteId);
+    }
+
+    private ResumenEstudiante cargar(Long estudianteId) {
+        if (!estudianteRepository.existsById(estudianteId)) {
+            return null;
+        }
+        ResumenEstudiante resumen = new ResumenEstudiante();
+        for (Object[] fila : inscripcionRepository.findResumenByEstudiante(estudianteId)) {
+            resumen.aplicar((Long) fila[0], (EstadoInscripcion) fila[1], (Double) fila[2], (Integer) fila[3]);
+        }
+        return resumen;
+    }
+
+    // computeIfPresent espera a una carga en curso del mismo estudiante, así el
+    // evento nunca se pierde entre la consulta inicial y la publicación del mapa
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInscripcionEstadoCambiado(InscripcionEstadoCambiadoEvent event) {
+        resumenes.computeIfPresent(event.getEstudianteId(), (id, resumen) -> {
+            Integer creditos = creditosDe(event.getMateriaId());
+            if (creditos == null) {
+                return null;
+            }
+            resumen.aplicar(event.getInscripcionId(), event.getEstadoNuevo(), event.getNotaNueva(), creditos);
+            return resumen;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInscripcionesAsignadas(InscripcionesAsignadasEvent event) {
+        event.getEstudianteIds().forEach(resumenes::remove);
+    }
+
+    // Cambiar los créditos de una materia afecta a todos los que la cursaron;
+    // es una operación administrativa rara, así que se descartan los resúmenes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreditosMateriaActualizados(CreditosMateriaActualizadosEvent event) {
+        creditosPorMateria.remove(event.getMateriaId());
+        resumenes.clear();
+    }
+
+    private Integer creditosDe(Long materiaId) {
+        Integer creditos = creditosPorMateria.get(materiaId);
+        if (creditos == null) {
+            creditos = materiaRepository.findCreditosById(materiaId).orElse(null);
+            if (creditos != null) {
+                creditosPorMateria.put(materiaId, creditos);
+            }
+        }
+        return creditos;
+    }
+
+    private static final class ResumenEstudiante {
+        private final Map<Long, Aporte> aportes = new HashMap<>();
+        private double sumaNotasPorCreditos;
+        private int creditosConNota;
+        private int creditosAprobados;
+        private int materiasAprobadas;
+        private int materiasReprobadas;
+        private int materiasEnCurso;
+        private int creditosEnCurso;
+
+        synchronized void aplicar(Long inscripcionId, EstadoInscripcion estado, Double nota, int creditos) {
+            Aporte anterior = aportes.put(inscripcionId, new Aporte(estado, nota, creditos));
+            if (anterior != null) {
+                sumar(anterior, -1);
+            }
+            sumar(aportes.get(inscripcionId), 1);
+        }
+
+        private void sumar(Aporte aporte, int signo) {
+            switch (aporte.estado) {
+                case ACTIVA -> {
+                    materiasEnCurso += signo;
+                    creditosEnCurso += signo * aporte.creditos;
+                }
+                case APROBADA -> {
+                    materiasAprobadas += signo;
+                    creditosAprobados += signo * aporte.creditos;
+                }
+                case REPROBADA -> materiasReprobadas += signo;
+                case CANCELADA -> {
+                    // No cuenta para el resumen
+                }
+            }
+            boolean conNotaFinal = aporte.nota != null
+                    && (aporte.estado == EstadoInscripcion.APROBADA || aporte.estado == EstadoInscripcion.REPROBADA);
+            if (conNotaFinal) {
+                sumaNotasPorCreditos += signo * aporte.nota * aporte.creditos;
+                creditosConNota += signo * aporte.creditos;
+            }
+        }
+
+        synchronized ResumenAcademicoDTO toDTO(Long estudianteId) {
+            return ResumenAcademicoDTO.builder()
+                    .estudianteId(estudianteId)
+                    .promedioPonderado(creditosConNota > 0 ? sumaNotasPorCreditos / creditosConNota : null)
+                    .creditosAprobados(creditosAprobados)
+                    .materiasAprobadas(materiasAprobadas)
+                    .materiasReprobadas(materiasReprobadas)
+                    .materiasEnCurso(materiasEnCurso)
+                    .creditosEnCurso(creditosEnCurso)
+                    .build();
+        }
+    }
+
+    private static final class Aporte {
+        private final EstadoInscripcion estado;
+        private final Double nota;
+        private final int creditos;
+
+        private Aporte(EstadoInscripcion estado, Double nota, int creditos) {
+            this.estado = estado;
+            this.nota = nota;
+            this.creditos = creditos;
+        }
+    }
+}
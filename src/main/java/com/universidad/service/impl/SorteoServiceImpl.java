@@ -0,0 +1,255 @@
+package com.universidad.service.impl;
+
+import com.universidad.cache.EtiquetasCache;
+import com.universidad.cache.TwoLevelCacheManager;
+import com.universidad.dto.ResultadoSorteoDTO;
+import com.universidad.dto.SolicitudSorteoDTO;
+import com.universidad.event.InscripcionesAsignadasEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.index.GrafoPrerequisitos;
+import com.universidad.model.Inscripcion.EstadoInscripcion;
+import com.universidad.model.Materia;
+import com.universidad.model.Materia.ModoAsignacion;
+import com.universidad.model.SolicitudSorteo;
+import com.universidad.model.SolicitudSorteo.EstadoSolicitudSorteo;
+import com.universidad.repository.EstudianteRepository;
+import com.universidad.repository.InscripcionRepository;
+import com.universidad.repository.MateriaRepository;
+import com.universidad.repository.SolicitudSorteoRepository;
+import com.universidad.service.ISorteoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Asignación de cupos por sorteo para materias con más demanda que cupos. En
+ * lugar de que todos compitan por crearInscripcion al abrir la inscripción, las
+ * solicitudes se juntan durante una ventana y un proceso por lotes asigna los
+ * cupos de una vez.
+ *
+ * El sorteo es ponderado (Efraimidis–Spirakis): cada solicitud recibe la clave
+ * ln(u) / peso con u uniforme en (0, 1) y ganan las de clave más alta, lo que
+ * equivale a extraer sin reposición con probabilidad proporcional al peso.
+ */
+@Service
+public class SorteoServiceImpl implements ISorteoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SorteoServiceImpl.class);
+
+    private static final String INSERT_INSCRIPCION =
+            "INSERT INTO inscripciones (estudiante_id, materia_id, fecha_inscripcion, estado) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private SolicitudSorteoRepository solicitudSorteoRepository;
+
+    @Autowired
+    private MateriaRepository materiaRepository;
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    @Autowired
+    private InscripcionRepository inscripcionRepository;
+
+    @Autowired
+    private GrafoPrerequisitos grafoPrerequisitos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @Value("${app.sorteo.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Override
+    @Transactional
+    @CacheEvict(value = { "materia", "materias" }, allEntries = true)
+    public void configurarSorteo(Long materiaId, LocalDateTime cierre) {
+        Materia materia = materiaRepository.findById(materiaId)
+                .orElseThrow(() -> new BusinessException("Materia no encontrada"));
+        materia.setModoAsignacion(ModoAsignacion.SORTEO);
+        materia.setCierreSorteo(cierre);
+        materiaRepository.save(materia);
+    }
+
+    @Override
+    @Transactional
+    public SolicitudSorteoDTO solicitar(Long estudianteId, Long materiaId) {
+        Materia materia = materiaRepository.findMateriaById(materiaId)
+                .orElseThrow(() -> new BusinessException("Materia no encontrada"));
+        if (materia.getModoAsignacion() != ModoAsignacion.SORTEO) {
+            throw new BusinessException("La materia no asigna sus cupos por sorteo");
+        }
+        if (materia.getCierreSorteo() != null && !LocalDateTime.now().isBefore(materia.getCierreSorteo())) {
+            throw new BusinessException("La ventana de solicitudes del sorteo ya cerró");
+        }
+        SolicitudSorteo existente = solicitudSorteoRepository.findByEstudianteIdAndMateriaId(estudianteId, materiaId)
+                .orElse(null);
+        if (existente != null) {
+            return mapToDTO(existente);
+        }
+        if (!estudianteRepository.existsById(estudianteId)) {
+            throw new BusinessException("Estudiante no encontrado");
+        }
+
+        // Dos pedidos simultáneos pueden pasar la búsqueda anterior: el segundo
+        // no inserta (ON CONFLICT) y devuelve la solicitud que creó el primero
+        solicitudSorteoRepository.insertarSiNoExiste(estudianteId, materiaId, LocalDateTime.now());
+        return solicitudSorteoRepository.findByEstudianteIdAndMateriaId(estudianteId, materiaId)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new BusinessException("No se pudo registrar la solicitud de sorteo"));
+    }
+
+    @Override
+    @Transactional
+    public SolicitudSorteoDTO ajustarPeso(Long solicitudId, Double peso) {
+        if (peso == null || peso <= 0) {
+            throw new BusinessException("El peso debe ser mayor a 0");
+        }
+        SolicitudSorteo solicitud = solicitudSorteoRepository.findById(solicitudId)
+                .orElseThrow(() -> new BusinessException("La solicitud con ID " + solicitudId + " no existe."));
+        if (solicitud.getEstado() != EstadoSolicitudSorteo.PENDIENTE) {
+            throw new BusinessException("Solo se puede cambiar el peso de una solicitud pendiente");
+        }
+        solicitud.setPeso(peso);
+        return mapToDTO(solicitudSorteoRepository.save(solicitud));
+    }
+
+    // La materia se bloquea durante todo el sorteo: en modo SORTEO no hay
+    // inscripciones directas, así que el bloqueo solo excluye otro sorteo o una
+    // reactivación manual de inscripciones.
+    @Override
+    @Transactional
+    public ResultadoSorteoDTO ejecutarSorteo(Long materiaId) {
+        long inicio = System.currentTimeMillis();
+        Materia materia = materiaRepository.findById(materiaId)
+                .orElseThrow(() -> new BusinessException("Materia no encontrada"));
+        if (materia.getModoAsignacion() != ModoAsignacion.SORTEO) {
+            throw new BusinessException("La materia no asigna sus cupos por sorteo");
+        }
+
+        List<Object[]> pendientes = solicitudSorteoRepository.findPendientesByMateria(materiaId);
+        List<Long> estudianteIds = new ArrayList<>(pendientes.size());
+        for (Object[] fila : pendientes) {
+            estudianteIds.add((Long) fila[1]);
+        }
+        Set<Long> activos = estudianteIds.isEmpty() ? Set.of()
+                : new HashSet<>(estudianteRepository.findIdsActivos(estudianteIds));
+        Set<Long> inscritos = new HashSet<>(inscripcionRepository.findEstudianteIdsActivosByMateria(materiaId));
+
+        // Separar las solicitudes que no pueden inscribirse y sortear el resto
+        List<Participante> participantes = new ArrayList<>(pendientes.size());
+        List<Long> rechazadas = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Object[] fila : pendientes) {
+            Long solicitudId = (Long) fila[0];
+            Long estudianteId = (Long) fila[1];
+            if (!activos.contains(estudianteId) || inscritos.contains(estudianteId)
+                    || !grafoPrerequisitos.cumplePrerequisitos(estudianteId, materiaId)) {
+                rechazadas.add(solicitudId);
+                continue;
+            }
+            double u = 1.0 - random.nextDouble(); // (0, 1]
+            participantes.add(new Participante(solicitudId, estudianteId, Math.log(u) / (Double) fila[2]));
+        }
+        participantes.sort(Comparator.comparingDouble((Participante p) -> p.clave).reversed());
+
+        int cuposDisponibles = Math.max(0, materia.getCupoMaximo() - materia.getCupoOcupado());
+        List<Participante> ganadores = participantes.subList(0, Math.min(cuposDisponibles, participantes.size()));
+        List<Participante> perdedores = participantes.subList(ganadores.size(), participantes.size());
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_INSCRIPCION, ganadores, tamanoLote, (ps, ganador) -> {
+            ps.setLong(1, ganador.estudianteId);
+            ps.setLong(2, materiaId);
+            ps.setTimestamp(3, ahora);
+            ps.setString(4, EstadoInscripcion.ACTIVA.name());
+        });
+
+        actualizarEstado(ganadores.stream().map(p -> p.solicitudId).toList(), EstadoSolicitudSorteo.ASIGNADA);
+        actualizarEstado(perdedores.stream().map(p -> p.solicitudId).toList(), EstadoSolicitudSorteo.NO_ASIGNADA);
+        actualizarEstado(rechazadas, EstadoSolicitudSorteo.RECHAZADA);
+
+        // La fila está bloqueada, el contador se actualiza en la propia entidad.
+        // Terminado el sorteo, los cupos que sobren se asignan por orden de llegada
+        materia.setCupoOcupado(materia.getCupoOcupado() + ganadores.size());
+        materia.setModoAsignacion(ModoAsignacion.ORDEN_LLEGADA);
+        materia.setCierreSorteo(null);
+        materiaRepository.save(materia);
+        eventPublisher.publishEvent(new InscripcionesAsignadasEvent(materiaId,
+                ganadores.stream().map(p -> p.estudianteId).toList()));
+        // Del caché solo cambian las inscripciones de la materia y de los ganadores
+        List<String> etiquetas = new ArrayList<>(ganadores.size() + 1);
+        etiquetas.add(EtiquetasCache.materia(materiaId));
+        ganadores.forEach(ganador -> etiquetas.add(EtiquetasCache.estudiante(ganador.estudianteId)));
+        cacheManager.invalidarEtiquetas(etiquetas);
+
+        long fin = System.currentTimeMillis();
+        logger.info("[SORTEO] Materia {}: {} solicitudes, {} asignadas, {} sin cupo, {} rechazadas (Duracion: {} ms)",
+                materiaId, pendientes.size(), ganadores.size(), perdedores.size(), rechazadas.size(), (fin - inicio));
+
+        return ResultadoSorteoDTO.builder()
+                .materiaId(materiaId)
+                .cuposDisponibles(cuposDisponibles)
+                .solicitudes(pendientes.size())
+                .asignadas(ganadores.size())
+                .noAsignadas(perdedores.size())
+                .rechazadas(rechazadas.size())
+                .build();
+    }
+
+    @Override
+    public List<Long> obtenerMateriasConSorteoVencido() {
+        return materiaRepository.findIdsConSorteoVencido(LocalDateTime.now());
+    }
+
+    private void actualizarEstado(List<Long> solicitudIds, EstadoSolicitudSorteo estado) {
+        for (int i = 0; i < solicitudIds.size(); i += tamanoLote) {
+            solicitudSorteoRepository.actualizarEstado(
+                    solicitudIds.subList(i, Math.min(i + tamanoLote, solicitudIds.size())), estado);
+        }
+    }
+
+    private SolicitudSorteoDTO mapToDTO(SolicitudSorteo solicitud) {
+        return SolicitudSorteoDTO.builder()
+                .id(solicitud.getId())
+                .estudianteId(solicitud.getEstudiante().getId())
+                .materiaId(solicitud.getMateria().getId())
+                .peso(solicitud.getPeso())
+                .estado(solicitud.getEstado().name())
+                .fechaSolicitud(solicitud.getFechaSolicitud())
+                .build();
+    }
+
+    private static final class Participante {
+        private final Long solicitudId;
+        private final Long estudianteId;
+        private final double clave;
+
+        private Participante(Long solicitudId, Long estudianteId, double clave) {
+            this.solicitudId = solicitudId;
+            this.estudianteId = estudianteId;
+            this.clave = clave;
+        }
+    }
+}
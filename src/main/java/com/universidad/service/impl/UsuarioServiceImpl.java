@@ -0,0 +1,78 @@
+package com.universidad.service.impl;
+
+import com.universidad.event.UsuarioCambiadoEvent;
+import com.universidad.exception.BusinessException;
+import com.universidad.model.Rol;
+import com.universidad.model.Rol.NombreRol;
+import com.universidad.model.Usuario;
+import com.universidad.repository.RolRepository;
+import com.universidad.repository.UsuarioRepository;
+import com.universidad.service.IUsuarioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class UsuarioServiceImpl implements IUsuarioService {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public void cambiarEstado(String username, boolean activo) {
+        Usuario usuario = buscar(username);
+        usuario.setActivo(activo);
+        usuario.setTokensValidosDesde(System.currentTimeMillis());
+        usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioCambiadoEvent(username));
+    }
+
+    @Override
+    @Transactional
+    public void asignarRoles(String username, List<String> roles) {
+        if (roles == null || roles.isEmpty()) {
+            throw new BusinessException("El usuario debe tener al menos un rol");
+        }
+        Usuario usuario = buscar(username);
+        Set<Rol> nuevos = new HashSet<>();
+        for (String nombre : roles) {
+            NombreRol nombreRol;
+            try {
+                nombreRol = NombreRol.valueOf(nombre);
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Rol inválido: " + nombre);
+            }
+            nuevos.add(rolRepository.findByNombre(nombreRol)
+                    .orElseThrow(() -> new BusinessException("Rol no encontrado: " + nombre)));
+        }
+        usuario.setRoles(nuevos);
+        usuario.setTokensValidosDesde(System.currentTimeMillis());
+        usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioCambiadoEvent(username));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> obtenerRolesVigentes(String username) {
+        return usuarioRepository.findNombresRolesSiActivo(username).stream()
+                .map(NombreRol::name)
+                .toList();
+    }
+
+    private Usuario buscar(String username) {
+        return usuarioRepository.findByUsername(username)
+                .orElseThrow(() -> new BusinessException("Usuario no encontrado: " + username));
+    }
+}
@@ -1,5 +1,6 @@
 package com.universidad.validation;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,6 +12,9 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
+import com.universidad.exception.AdmisionRechazadaException;
+import com.universidad.exception.ServicioSaturadoException;
+
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 
@@ -208,6 +212,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiError);
     }
 
+    // 11. Maneja la saturación de colas y pools internos
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<ApiError> handleServicioSaturado(ServicioSaturadoException ex) {
+        ApiError apiError = new ApiError(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Servicio temporalmente saturado",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiError);
+    }
+
+    // 12. Maneja el rechazo del control de admisión de inscripciones
+    @ExceptionHandler(AdmisionRechazadaException.class)
+    public ResponseEntity<ApiError> handleAdmisionRechazada(AdmisionRechazadaException ex) {
+        ApiError apiError = new ApiError(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Inscripción fuera de la ventana o tasa permitida",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(apiError);
+    }
+
     public class RecursoNoDisponibleException extends RuntimeException {
         public RecursoNoDisponibleException(String mensaje) {
             super(mensaje);